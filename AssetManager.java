@@ -0,0 +1,158 @@
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.media.AudioClip;
+import javafx.scene.text.Font;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Loads each asset once and hands out the shared copy to everything that uses it
+preloadAll() decodes every image, sound, the font, and the collision masks on background threads at startup, anything asked for before its
+turn comes is loaded right away by the caller instead (or waited on, if a loader thread is already decoding it)
+ */
+public class AssetManager {
+
+    public static final String FONT_PATH = "/assets/custom_font/arcade_font.TTF";
+    public static final double FONT_SIZE = 35;
+
+    // Roughly in the order they're first needed: start screen, game start, gameplay
+    private static final String[] IMAGE_PATHS = {
+            "/assets/background/logo.png",
+            "/assets/background/background_image.png",
+            "/assets/sprite/pizza.png",
+            "/assets/sprite/enemy.png",
+            "/assets/projectile/projectile.png",
+            "/assets/projectile/enemy_projectile.png",
+            "/assets/effect/explosion.png",
+            "/assets/sprite/salt.png",
+            "/assets/sprite/pepper.png"
+    };
+    private static final String[] SOUND_PATHS = {
+            "/assets/sound/game_start_sound.mp3",
+            "/assets/sound/blaster_sound.mp3",
+            "/assets/sound/enemy_blaster_sound.mp3",
+            "/assets/sound/explosion_sound.mp3",
+            "/assets/sound/power_up_sound.mp3",
+            "/assets/sound/game_over_sound.mp3"
+    };
+
+    private static final Map<String, Image> IMAGES = new ConcurrentHashMap<>();
+    private static final Map<String, AudioClip> SOUNDS = new ConcurrentHashMap<>();
+    private static final Map<String, Font> FONTS = new ConcurrentHashMap<>();
+    private static volatile TextureAtlas atlas;
+    private static final CompletableFuture<TextureAtlas> atlasBuilt = new CompletableFuture<>();
+
+    // Used to confirm sprites are only decoded once per session
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong decodedBytes = new AtomicLong();
+
+    public static Image getImage(String path) {
+        Image image = IMAGES.get(path);
+
+        if (image != null) {
+            hits.incrementAndGet();
+            return image;
+        }
+
+        return IMAGES.computeIfAbsent(path, AssetManager::loadImage);
+    }
+
+    private static Image loadImage(String path) {
+        Image image = new Image(AssetManager.class.getResource(path).toExternalForm());
+        misses.incrementAndGet();
+
+        // Decoded images are stored as 32-bit ARGB
+        decodedBytes.addAndGet((long) image.getWidth() * (long) image.getHeight() * 4);
+
+        return image;
+    }
+
+    public static AudioClip getSound(String path) {
+        return SOUNDS.computeIfAbsent(path, p -> new AudioClip(AssetManager.class.getResource(p).toExternalForm()));
+    }
+
+    public static Font getFont() {
+        return FONTS.computeIfAbsent(FONT_PATH, p -> Font.loadFont(AssetManager.class.getResource(p).toExternalForm(), FONT_SIZE));
+    }
+
+    // Sprites and effects packed into one image, built once all of them have been loaded
+    public static TextureAtlas getAtlas() {
+        TextureAtlas current = atlas;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (AssetManager.class) {
+            if (atlas == null) {
+                atlas = new TextureAtlas(TextureAtlas.SPRITE_PATHS);
+                atlasBuilt.complete(atlas);
+            }
+            return atlas;
+        }
+    }
+
+    public static boolean isAtlasReady() {
+        return atlas != null;
+    }
+
+    // Shows the sprite in the view straight away if the atlas is built, otherwise on the FX thread once the preloader has built it
+    public static void applySprite(ImageView view, String path) {
+        TextureAtlas current = atlas;
+        if (current != null) {
+            current.applyTo(view, path);
+            return;
+        }
+
+        atlasBuilt.thenAccept(built -> Platform.runLater(() -> built.applyTo(view, path)));
+    }
+
+    // Starts loading every asset in parallel, the returned future completes once all of them are ready
+    public static CompletableFuture<Void> preloadAll() {
+        int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        ExecutorService loaders = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "asset-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        CompletableFuture<?>[] loads = new CompletableFuture<?>[IMAGE_PATHS.length + SOUND_PATHS.length + 2];
+        int i = 0;
+
+        loads[i++] = CompletableFuture.runAsync(AssetManager::getFont, loaders);
+        loads[i++] = CompletableFuture.runAsync(CollisionMask::preload, loaders);
+        for (String path : IMAGE_PATHS) {
+            loads[i++] = CompletableFuture.runAsync(() -> getImage(path), loaders);
+        }
+        for (String path : SOUND_PATHS) {
+            loads[i++] = CompletableFuture.runAsync(() -> getSound(path), loaders);
+        }
+
+        return CompletableFuture.allOf(loads)
+                .thenRunAsync(AssetManager::getAtlas, loaders)
+                .whenComplete((result, error) -> loaders.shutdown());
+    }
+
+    public static long getHits() {
+        return hits.get();
+    }
+
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    public static long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+
+    public static String getStats() {
+        return "images " + IMAGES.size() + " sounds " + SOUNDS.size() + " hits " + hits + " misses " + misses
+                + " decoded " + (decodedBytes.get() / 1024) + " kb";
+    }
+}
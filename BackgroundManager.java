@@ -1,10 +1,6 @@
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
-import javafx.util.Duration;
 
 // Handles infinite scrolling background
 public class BackgroundManager {
@@ -17,7 +13,7 @@ public class BackgroundManager {
     public BackgroundManager(Pane gamePane) {
         this.gamePane = gamePane;
 
-        Image backgroundImage = new Image(getClass().getResource("/assets/background/background_image.png").toExternalForm());
+        Image backgroundImage = AssetManager.getImage("/assets/background/background_image.png");
 
         this.background1 = new ImageView(backgroundImage);
         this.background2 = new ImageView(backgroundImage);
@@ -41,28 +37,22 @@ public class BackgroundManager {
 
     /*
     Method which keeps two identical background images connected to one another vertically, shifting
-    them down and wrapping the image which goes past the bottom of the screen back around to the top of the previous image
+    them down and wrapping the image which goes past the bottom of the screen back around to the top of the previous image.
+    Called once per game tick by GameManager
      */
+    public void update() {
+        double paneHeight = gamePane.getHeight();
 
-    public void startScrolling() {
+        background1.setY(background1.getY() + 2);
+        background2.setY(background2.getY() + 2);
 
-        // Timeline instance is used to animate scrolling background, with the scrolling rate going at around 60 FPS
-        Timeline timeline = new Timeline(new KeyFrame(Duration.millis(16), e -> {
-            double paneHeight = gamePane.getHeight();
+        if (background1.getY() >= paneHeight) {
+            background1.setY(background2.getY() - paneHeight);
+        }
 
-            background1.setY(background1.getY() + 2);
-            background2.setY(background2.getY() + 2);
-
-            if (background1.getY() >= paneHeight) {
-                background1.setY(background2.getY() - paneHeight);
-            }
-
-            if (background2.getY() >= paneHeight) {
-                background2.setY(background1.getY() - paneHeight);
-            }
-        }));
-        timeline.setCycleCount(Animation.INDEFINITE);
-        timeline.play();
+        if (background2.getY() >= paneHeight) {
+            background2.setY(background1.getY() - paneHeight);
+        }
     }
 }
 
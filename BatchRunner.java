@@ -0,0 +1,213 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ToDoubleFunction;
+
+/*
+Plays thousands of independent games without a window, spread over every core, for balance and load studies
+Each game gets its own seed and an input policy, and plays until the player runs out of life or the tick limit is hit
+Prints an aggregated report (survival time, score, peak entities, tick cost), optionally with one CSV row per game
+Balance settings are changed with the world.* system properties, e.g. -Dworld.spawnCooldown=1000 (see World)
+
+Usage: java BatchRunner [--games=1000] [--threads=N or 1,2,4,8] [--policy=random|still|dodge] [--max-ticks=216000]
+                        [--seed=1] [--warmup=100] [--csv=file]
+A list of thread counts runs the batch once per count, to check how throughput scales with cores
+An untimed warm-up batch runs first so the JIT has compiled the game before anything is timed
+ */
+public class BatchRunner {
+
+    // How the simulated player decides on its input each tick
+    enum Policy {
+
+        // A random direction every half second while holding fire, like HeadlessRunner
+        RANDOM {
+            int nextInput(World world, GameRandom random, int previous) {
+                if (world.getTick() % 30 != 0) return previous;
+                return World.INPUT_FIRE | MOVES[random.nextInt(MOVES.length)];
+            }
+        },
+
+        // Stays put and holds fire
+        STILL {
+            int nextInput(World world, GameRandom random, int previous) {
+                return World.INPUT_FIRE;
+            }
+        },
+
+        // Steps sideways away from the closest enemy shot coming down on it, otherwise moves randomly
+        DODGE {
+            int nextInput(World world, GameRandom random, int previous) {
+                Entity player = world.getPlayer();
+                Entity threat = null;
+
+                for (Entity projectile : world.getEnemyProjectiles()) {
+                    boolean above = projectile.y < player.y + player.height && projectile.y > player.y - 200;
+                    boolean inLine = projectile.x + projectile.width > player.x - 10 && projectile.x < player.x + player.width + 10;
+                    if (projectile.alive && above && inLine && (threat == null || projectile.y > threat.y)) {
+                        threat = projectile;
+                    }
+                }
+
+                if (threat == null) {
+                    return RANDOM.nextInput(world, random, previous);
+                }
+
+                boolean goLeft = threat.getCenterX() > player.getCenterX();
+                if (player.x < 10) goLeft = false;
+                if (player.x + player.width > World.WIDTH - 10) goLeft = true;
+                return World.INPUT_FIRE | (goLeft ? World.INPUT_LEFT : World.INPUT_RIGHT);
+            }
+        };
+
+        private static final int[] MOVES = {0, World.INPUT_LEFT, World.INPUT_RIGHT, World.INPUT_UP, World.INPUT_DOWN};
+
+        abstract int nextInput(World world, GameRandom random, int previous);
+    }
+
+    // Statistics for one game
+    record Result(long seed, long ticks, boolean survived, int score, int peakEntities, long nanos) {
+
+        double survivalSeconds() {
+            return ticks / (double) World.TICKS_PER_SECOND;
+        }
+
+        double nanosPerTick() {
+            return ticks == 0 ? 0 : nanos / (double) ticks;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = 1000;
+        int[] threadCounts = {Runtime.getRuntime().availableProcessors()};
+        Policy policy = Policy.RANDOM;
+        long maxTicks = 60L * 60 * World.TICKS_PER_SECOND;     // An hour of play
+        long baseSeed = 1;
+        int warmupGames = 100;
+        Path csv = null;
+
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+
+            if (arg.startsWith("--games=")) games = Integer.parseInt(value);
+            else if (arg.startsWith("--threads=")) threadCounts = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+            else if (arg.startsWith("--policy=")) policy = Policy.valueOf(value.toUpperCase());
+            else if (arg.startsWith("--max-ticks=")) maxTicks = Long.parseLong(value);
+            else if (arg.startsWith("--seed=")) baseSeed = Long.parseLong(value);
+            else if (arg.startsWith("--warmup=")) warmupGames = Integer.parseInt(value);
+            else if (arg.startsWith("--csv=")) csv = Path.of(value);
+            else throw new IllegalArgumentException("Unknown argument " + arg);
+        }
+
+        System.out.printf("%d games, policy %s, up to %d ticks each%n", games, policy.name().toLowerCase(), maxTicks);
+
+        if (warmupGames > 0) {
+            runBatch(warmupGames, threadCounts[threadCounts.length - 1], policy, maxTicks, -baseSeed);
+        }
+
+        Result[] results = null;
+        double singleThreadRate = 0;
+
+        for (int threads : threadCounts) {
+            long start = System.nanoTime();
+            results = runBatch(games, threads, policy, maxTicks, baseSeed);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long totalTicks = Arrays.stream(results).mapToLong(Result::ticks).sum();
+            double ticksPerSecond = totalTicks / seconds;
+            if (threads == 1) singleThreadRate = ticksPerSecond;
+
+            System.out.printf("threads %3d: %.2f s, %.0f games/s, %.0f ticks/s%s%n", threads, seconds, games / seconds, ticksPerSecond,
+                    singleThreadRate > 0 ? String.format(" (%.2fx one thread)", ticksPerSecond / singleThreadRate) : "");
+        }
+
+        printReport(results);
+
+        if (csv != null) {
+            writeCsv(csv, results);
+            System.out.println("Per game results written to " + csv.toAbsolutePath());
+        }
+    }
+
+    static Result[] runBatch(int games, int threads, Policy policy, long maxTicks, long baseSeed) throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<Result>> futures = new ArrayList<>(games);
+            for (int i = 0; i < games; i++) {
+                long seed = new GameRandom(baseSeed + i).nextLong();   // Spread out so neighbouring games aren't related
+                futures.add(executor.submit(() -> playGame(seed, policy, maxTicks)));
+            }
+
+            Result[] results = new Result[games];
+            for (int i = 0; i < games; i++) {
+                results[i] = futures.get(i).get();
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // Plays one game from start to game over, everything it touches belongs to this game so games can run side by side
+    static Result playGame(long seed, Policy policy, long maxTicks) {
+        World world = new World(new GameState(), seed);
+        world.getProfiler().setEnabled(false);
+        GameRandom inputRandom = new GameRandom(~seed);
+
+        int input = 0;
+        int peakEntities = 0;
+        long start = System.nanoTime();
+
+        while (!world.isGameOver() && world.getTick() < maxTicks) {
+            input = policy.nextInput(world, inputRandom, input);
+            world.setInput(input);
+            world.tick();
+            peakEntities = Math.max(peakEntities, world.getEntityCount());
+        }
+
+        return new Result(seed, world.getTick(), !world.isGameOver(), world.getState().score, peakEntities, System.nanoTime() - start);
+    }
+
+    private static void printReport(Result[] results) {
+        long survived = Arrays.stream(results).filter(Result::survived).count();
+        System.out.printf("%d of %d games reached the tick limit%n", survived, results.length);
+
+        System.out.printf("%-18s %10s %10s %10s %10s %10s%n", "", "mean", "p10", "p50", "p90", "max");
+        printRow("survival (s)", results, Result::survivalSeconds);
+        printRow("score", results, result -> result.score());
+        printRow("peak entities", results, result -> result.peakEntities());
+        printRow("tick cost (us)", results, result -> result.nanosPerTick() / 1000);
+    }
+
+    private static void printRow(String name, Result[] results, ToDoubleFunction<Result> stat) {
+        double[] values = Arrays.stream(results).mapToDouble(stat).sorted().toArray();
+        double mean = Arrays.stream(values).average().orElse(0);
+
+        System.out.printf("%-18s %10.1f %10.1f %10.1f %10.1f %10.1f%n", name, mean,
+                percentile(values, 10), percentile(values, 50), percentile(values, 90), values[values.length - 1]);
+    }
+
+    // Nearest rank percentile of already sorted values
+    private static double percentile(double[] sorted, double percentile) {
+        int rank = (int) Math.ceil(sorted.length * percentile / 100.0);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    private static void writeCsv(Path path, Result[] results) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+            out.println("seed,ticks,survival_s,survived,score,peak_entities,ns_per_tick");
+            for (Result result : results) {
+                out.printf("%d,%d,%.3f,%b,%d,%d,%.1f%n", result.seed(), result.ticks(), result.survivalSeconds(),
+                        result.survived(), result.score(), result.peakEntities(), result.nanosPerTick());
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+import javafx.geometry.Rectangle2D;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.layout.Pane;
+
+import java.util.List;
+
+/*
+Draws every object in the world onto a single Canvas instead of adding one ImageView per object to the game pane
+Objects are drawn grouped by sprite, so the scene graph only has one node to lay out no matter how many objects there are
+Every sprite comes from the shared texture atlas, so all draw calls use the same texture
+Selected at launch with --renderer=canvas
+ */
+public class CanvasRenderer implements Renderer {
+
+    private static final long FLASH_NANOS = 500_000_000L;      // Same length as PizzaSprite's flash (10 fades of 50 ms)
+    private static final long FLASH_FADE_NANOS = 50_000_000L;
+
+    private final Canvas canvas;
+    private final GraphicsContext graphics;
+
+    // Looked up from the atlas on the first frame after the asset preloader has built it
+    private Image atlasImage;
+    private Rectangle2D pizzaRegion;
+    private Rectangle2D enemyRegion;
+    private Rectangle2D projectileRegion;
+    private Rectangle2D enemyProjectileRegion;
+    private Rectangle2D saltRegion;
+    private Rectangle2D pepperRegion;
+    private Rectangle2D explosionRegion;
+
+    private boolean playerShown = false;
+    private long flashStartedAt = 0;
+
+    public CanvasRenderer(Pane gamePane) {
+        canvas = new Canvas(World.WIDTH, World.HEIGHT);
+        graphics = canvas.getGraphicsContext2D();
+        gamePane.getChildren().add(canvas);
+    }
+
+    @Override
+    public void showPlayer() {
+        playerShown = true;
+    }
+
+    @Override
+    public void render(World world) {
+        graphics.clearRect(0, 0, World.WIDTH, World.HEIGHT);
+        if (!loadAtlas()) {
+            return;
+        }
+
+        drawAll(world.getPlayerProjectiles(), projectileRegion);
+        drawAll(world.getEnemyProjectiles(), enemyProjectileRegion);
+        drawAll(world.getEnemies(), enemyRegion);
+        drawPowerUps(world.getPowerUps(), EntityType.SALT, saltRegion);
+        drawPowerUps(world.getPowerUps(), EntityType.PEPPER, pepperRegion);
+
+        Entity player = world.getPlayer();
+        if (playerShown && player.alive) {
+            graphics.setGlobalAlpha(getPlayerAlpha());
+            draw(pizzaRegion, player.x, player.y, player.width, player.height);
+
+            // Clones follow the player sprite at the same offsets used for firing
+            if (world.isPepperShotActive()) {
+                draw(pizzaRegion, player.x - 80, player.y, player.width, player.height);
+                draw(pizzaRegion, player.x + 80, player.y, player.width, player.height);
+            }
+            graphics.setGlobalAlpha(1.0);
+        }
+
+        drawAll(world.getExplosions(), explosionRegion);
+    }
+
+    @Override
+    public void flashPlayer() {
+        flashStartedAt = System.nanoTime();
+    }
+
+    private void drawAll(List<Entity> entities, Rectangle2D region) {
+        for (Entity entity : entities) {
+            if (entity.alive) {
+                draw(region, entity.x, entity.y, entity.width, entity.height);
+            }
+        }
+    }
+
+    // Salt and pepper share a list, so each one is drawn in its own pass
+    private void drawPowerUps(List<Entity> powerUps, EntityType type, Rectangle2D region) {
+        for (Entity powerUp : powerUps) {
+            if (powerUp.alive && powerUp.type == type) {
+                draw(region, powerUp.x, powerUp.y, powerUp.width, powerUp.height);
+            }
+        }
+    }
+
+    // Nothing is drawn until the atlas is ready, rather than building it on the FX thread
+    private boolean loadAtlas() {
+        if (atlasImage != null) {
+            return true;
+        }
+        if (!AssetManager.isAtlasReady()) {
+            return false;
+        }
+
+        TextureAtlas atlas = AssetManager.getAtlas();
+        pizzaRegion = atlas.getRegion("/assets/sprite/pizza.png");
+        enemyRegion = atlas.getRegion("/assets/sprite/enemy.png");
+        projectileRegion = atlas.getRegion("/assets/projectile/projectile.png");
+        enemyProjectileRegion = atlas.getRegion("/assets/projectile/enemy_projectile.png");
+        saltRegion = atlas.getRegion("/assets/sprite/salt.png");
+        pepperRegion = atlas.getRegion("/assets/sprite/pepper.png");
+        explosionRegion = atlas.getRegion("/assets/effect/explosion.png");
+        atlasImage = atlas.getImage();
+        return true;
+    }
+
+    // Draws one region of the atlas scaled to the given rectangle
+    private void draw(Rectangle2D region, double x, double y, double width, double height) {
+        graphics.drawImage(atlasImage, region.getMinX(), region.getMinY(), region.getWidth(), region.getHeight(), x, y, width, height);
+    }
+
+    // Fades the player in and out like PizzaSprite.flash()
+    private double getPlayerAlpha() {
+        long elapsed = System.nanoTime() - flashStartedAt;
+
+        if (flashStartedAt == 0 || elapsed >= FLASH_NANOS) {
+            return 1.0;
+        }
+
+        long fade = elapsed / FLASH_FADE_NANOS;
+        double progress = (elapsed % FLASH_FADE_NANOS) / (double) FLASH_FADE_NANOS;
+        return (fade % 2 == 0) ? 1.0 - progress : progress;
+    }
+}
@@ -0,0 +1,103 @@
+import java.util.Arrays;
+
+/*
+Ring buffer of the collisions found in a tick, written by CollisionManager.detect() and drained by CollisionManager.resolve()
+Each event is a type and the two entities involved, kept in parallel preallocated arrays so recording one doesn't allocate
+The buffer only grows if a single tick finds more collisions than it can hold, events are never dropped
+ */
+public class CollisionEvents {
+
+    public enum Type {
+        PLAYER_HIT,             // first: player, second: the enemy or enemy projectile touching it
+        ENEMY_KILLED,           // first: enemy, second: the player projectile that hit it
+        POWER_UP_COLLECTED      // first: power up, second: player
+    }
+
+    private Type[] types;
+    private Entity[] firsts;
+    private Entity[] seconds;
+    private int mask;           // Capacity is a power of two so wrapping around is a mask
+    private int head = 0;       // Next event to read
+    private int tail = 0;       // Next free slot
+
+    public CollisionEvents(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        types = new Type[size];
+        firsts = new Entity[size];
+        seconds = new Entity[size];
+        mask = size - 1;
+    }
+
+    public void add(Type type, Entity first, Entity second) {
+        if (tail - head == types.length) {
+            grow();
+        }
+
+        int slot = tail & mask;
+        types[slot] = type;
+        firsts[slot] = first;
+        seconds[slot] = second;
+        tail++;
+    }
+
+    public boolean isEmpty() {
+        return head == tail;
+    }
+
+    public int size() {
+        return tail - head;
+    }
+
+    // The 3 methods below read the oldest event, next() then moves on to the one after it
+    public Type peekType() {
+        return types[head & mask];
+    }
+
+    public Entity peekFirst() {
+        return firsts[head & mask];
+    }
+
+    public Entity peekSecond() {
+        return seconds[head & mask];
+    }
+
+    public void next() {
+        int slot = head & mask;
+        firsts[slot] = null;
+        seconds[slot] = null;
+        head++;
+    }
+
+    public void clear() {
+        Arrays.fill(firsts, null);
+        Arrays.fill(seconds, null);
+        head = 0;
+        tail = 0;
+    }
+
+    public int getCapacity() {
+        return types.length;
+    }
+
+    // Doubles the capacity, copying the waiting events to the start of the new arrays in order
+    private void grow() {
+        int count = size();
+        Type[] newTypes = new Type[types.length * 2];
+        Entity[] newFirsts = new Entity[types.length * 2];
+        Entity[] newSeconds = new Entity[types.length * 2];
+
+        for (int i = 0; i < count; i++) {
+            int slot = (head + i) & mask;
+            newTypes[i] = types[slot];
+            newFirsts[i] = firsts[slot];
+            newSeconds[i] = seconds[slot];
+        }
+
+        types = newTypes;
+        firsts = newFirsts;
+        seconds = newSeconds;
+        mask = types.length - 1;
+        head = 0;
+        tail = count;
+    }
+}
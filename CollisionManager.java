@@ -1,156 +1,116 @@
-import javafx.animation.AnimationTimer;
-import javafx.animation.PauseTransition;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-import javafx.scene.layout.Pane;
-import javafx.scene.text.Text;
-import javafx.util.Duration;
-
-import java.util.Set;
-import java.util.function.Consumer;
-
-// Handles interactions between player sprite, enemy sprites, projectiles, & power ups. It also updates the score and life bar
+import java.util.Arrays;
+import java.util.List;
+
+/*
+Handles interactions between player sprite, enemy sprites, projectiles, & power ups
+Runs in two stages each tick: detect() only reads the world and writes what it finds to a CollisionEvents buffer,
+then resolve() applies all of them in one batch (damage, score, explosions, power ups)
+ */
 public class CollisionManager {
 
-    // Object checking method which is called around 60 times/second, it keeps track of every object on screen at any given time
-    public static void update(
-            Pane gamePane,
-            Pane uiPane,
-            PizzaSprite pizzaMain,
-            GameState state,
-            Text scoreText,
-            Text highScoreText,
-            LifeIcon lifeIcon1,
-            LifeIcon lifeIcon2,
-            LifeIcon lifeIcon3,
-            AnimationTimer timer,
-            Runnable onGameOver,
-            Set<Enemy> activeEnemies,
-            Consumer<Long> setFireCooldown,
-            Runnable enablePepperShot,
-            Runnable disablePepperShot
-    ) {
-        long damageCooldown = 1000; // Invulnerability time given once player sprite takes damage
+    // Scratch space for detection, one per thread so separate worlds can be simulated in parallel (see BatchRunner)
+    private static final class Scratch {
+
+        // Broad phase grids over the 768x1024 playfield, rebuilt every tick
+        private final SpatialHash<Entity> enemyGrid = new SpatialHash<>(World.WIDTH, World.HEIGHT, 128);
+        private final SpatialHash<Entity> enemyProjectileGrid = new SpatialHash<>(World.WIDTH, World.HEIGHT, 128);
+
+        // Enemies already hit by a projectile during detection, indexed by their position in enemyGrid
+        private boolean[] enemyHit = new boolean[64];
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    public static void update(World world) {
+        detect(world, world.getCollisionEvents());
+        resolve(world, world.getCollisionEvents());
+    }
+
+    // Checks every active object against the objects near it, recording each collision without changing the world
+    public static void detect(World world, CollisionEvents events) {
+        Entity player = world.getPlayer();
+        Scratch scratch = SCRATCH.get();
+        SpatialHash<Entity> enemyGrid = scratch.enemyGrid;
+        SpatialHash<Entity> enemyProjectileGrid = scratch.enemyProjectileGrid;
+
+        fillGrid(enemyGrid, world.getEnemies());
+        fillGrid(enemyProjectileGrid, world.getEnemyProjectiles());
+
+        if (scratch.enemyHit.length < enemyGrid.size()) {
+            scratch.enemyHit = new boolean[enemyGrid.size() * 2];
+        }
+        boolean[] enemyHit = scratch.enemyHit;
+        Arrays.fill(enemyHit, 0, enemyGrid.size(), false);
 
         /*
-        Assign each node currently on the pane to var and check its status using a for loop
-        Calls the intersect() method from CollisionUtils to check for collision
+        Only the enemies and enemy projectiles sharing a grid cell with the player sprite are checked
+        Calls the overlaps() method from CollisionUtils, which checks the rectangles first and then the sprites' pixels
          */
-        for (var node : gamePane.getChildren()) {
-
-            if (node instanceof Enemy enemy) {
-                if (CollisionUtils.intersects(pizzaMain, enemy) && System.currentTimeMillis() - state.timeSinceLastTookDamage >= damageCooldown) {
-                    SoundManager.playExplosionSound();
-                    pizzaMain.flash();
-                    state.life--;
-                    state.timeSinceLastTookDamage = System.currentTimeMillis();
-                }
+        int nearbyEnemies = enemyGrid.query(player.x, player.y, player.width, player.height);
+        for (int i = 0; i < nearbyEnemies; i++) {
+            Entity enemy = enemyGrid.getResult(i);
+            if (CollisionUtils.overlaps(player, enemy)) {
+                events.add(CollisionEvents.Type.PLAYER_HIT, player, enemy);
             }
+        }
 
-            if (node instanceof EnemyProjectile enemyProjectile) {
-                if (CollisionUtils.intersects(pizzaMain, enemyProjectile) && System.currentTimeMillis() - state.timeSinceLastTookDamage >= damageCooldown) {
-                    SoundManager.playExplosionSound();
-                    pizzaMain.flash();
-                    state.life--;
-                    state.timeSinceLastTookDamage = System.currentTimeMillis();
-                }
+        int nearbyEnemyProjectiles = enemyProjectileGrid.query(player.x, player.y, player.width, player.height);
+        for (int i = 0; i < nearbyEnemyProjectiles; i++) {
+            Entity enemyProjectile = enemyProjectileGrid.getResult(i);
+            if (CollisionUtils.overlaps(player, enemyProjectile)) {
+                events.add(CollisionEvents.Type.PLAYER_HIT, player, enemyProjectile);
             }
+        }
 
-            if (node instanceof Projectile projectile) {
-                for (Enemy enemy : activeEnemies) {
-                    if (enemy.getBoundsInParent().getMinY() >= 0 && CollisionUtils.intersects(projectile, enemy)) {
-                        state.score += 5;
-                        state.highScore = Math.max(state.highScore, state.score);
-
-                        CollisionManager.spawnExplosion(
-                                gamePane,
-                                enemy.getBoundsInParent().getCenterX(),
-                                enemy.getBoundsInParent().getCenterY()
-                        );
-                        SoundManager.playExplosionSound();
-                        gamePane.getChildren().removeAll(enemy, projectile);
-                        break;
-                    }
-                }
+        // Each player projectile is only checked against the enemies in the grid cells it overlaps
+        for (Entity projectile : world.getPlayerProjectiles()) {
+            if (!projectile.alive) {
+                continue;
             }
 
-            /*
-            The 2 conditional statements below handle power up interactions
-            Salt: speed up fire rate
-            Pepper: spawns extra pizza slices which shoot alongside the player's sprite
-             */
-            if (node instanceof Salt salt) {
-                if (CollisionUtils.intersects(salt, pizzaMain)) {
-                    SoundManager.playPowerUpSound();
-                    pizzaMain.flash();
-                    setFireCooldown.accept(250L);
-                    gamePane.getChildren().remove(salt);
-                    PauseTransition reset = new PauseTransition(Duration.seconds(15));
-                    reset.setOnFinished(e -> setFireCooldown.accept(750L));
-                    reset.play();
-                }
-            }
+            int candidates = enemyGrid.query(projectile.x, projectile.y, projectile.width, projectile.height);
+            for (int i = 0; i < candidates; i++) {
+                Entity enemy = enemyGrid.getResult(i);
+                int index = enemyGrid.getResultIndex(i);
 
-            if (node instanceof Pepper pepper) {
-                if (CollisionUtils.intersects(pepper, pizzaMain)) {
-                    SoundManager.playPowerUpSound();
-                    pizzaMain.flash();
-                    gamePane.getChildren().remove(pepper);
-                    enablePepperShot.run();
-                    PauseTransition reset = new PauseTransition(Duration.seconds(15));
-                    reset.setOnFinished(e -> disablePepperShot.run());
-                    reset.play();
+                // An enemy can only be destroyed once, later projectiles look for another target
+                if (!enemyHit[index] && enemy.y >= 0 && CollisionUtils.overlaps(projectile, enemy)) {
+                    enemyHit[index] = true;
+                    events.add(CollisionEvents.Type.ENEMY_KILLED, enemy, projectile);
+                    break;
                 }
             }
         }
 
-        // Keeps the score updated after every interaction
-        scoreText.setText("score\t\t" + state.score);
-        highScoreText.setText("hi score\t\t" + state.highScore);
-
-        // Controls the visual life bar as well as triggering game over and reset logic once life reaches 0
-        switch (state.life) {
-            case 2 -> uiPane.getChildren().remove(lifeIcon3);
-            case 1 -> uiPane.getChildren().remove(lifeIcon2);
-            case 0 -> {
-
-                CollisionManager.spawnExplosion(
-                        gamePane,
-                        pizzaMain.getBoundsInParent().getCenterX(),
-                        pizzaMain.getBoundsInParent().getCenterY()
-                );
-
-                SoundManager.playGameOverSound();
-
-                uiPane.getChildren().remove(lifeIcon1);
-                pizzaMain.setVisible(false);
-
-                gamePane.getChildren().removeIf(node ->
-                        node instanceof PizzaSprite && node != pizzaMain);
-
-                timer.stop();
-
-                onGameOver.run();
+        // Power ups are rare enough to check directly
+        for (Entity powerUp : world.getPowerUps()) {
+            if (powerUp.alive && CollisionUtils.overlaps(powerUp, player)) {
+                events.add(CollisionEvents.Type.POWER_UP_COLLECTED, powerUp, player);
             }
         }
     }
 
-    // Creates explosion once player or enemy sprites are destroyed
-    public static void spawnExplosion(Pane gamePane, double centerX, double centerY) {
-        ImageView explosion = new ImageView(new Image(CollisionManager.class.getResource("/assets/effect/explosion.png").toExternalForm()));
-
-        explosion.setFitWidth(64);
-        explosion.setFitHeight(64);
-        explosion.setPreserveRatio(true);
-
-        explosion.setX(centerX - explosion.getFitWidth() / 2);
-        explosion.setY(centerY - explosion.getFitHeight() / 2);
+    // Applies every collision found by detect() in the order it was found, leaving the buffer empty
+    public static void resolve(World world, CollisionEvents events) {
+        while (!events.isEmpty()) {
+            switch (events.peekType()) {
+                case PLAYER_HIT -> world.damagePlayer();
+                case ENEMY_KILLED -> world.destroyEnemy(events.peekFirst(), events.peekSecond());
+                case POWER_UP_COLLECTED -> world.collectPowerUp(events.peekFirst());
+            }
+            events.next();
+        }
+    }
 
-        gamePane.getChildren().add(explosion);
+    // Objects which left the screen this tick are skipped
+    private static void fillGrid(SpatialHash<Entity> grid, List<Entity> entities) {
+        grid.clear();
 
-        PauseTransition explosion1Animation = new PauseTransition(Duration.millis(300));
-        explosion1Animation.setOnFinished(e -> gamePane.getChildren().remove(explosion));
-        explosion1Animation.play();
+        for (Entity entity : entities) {
+            if (entity.alive) {
+                grid.insert(entity, entity.x, entity.y, entity.width, entity.height);
+            }
+        }
     }
 }
 
@@ -0,0 +1,142 @@
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/*
+Pixel-accurate hitbox for one kind of object, built once from the alpha channel of its sprite at the size it's drawn on screen
+Each row is packed into longs, one bit per pixel (lowest bit is the leftmost pixel), so testing two masks for overlap is
+a few shifts and ANDs per row instead of a check per pixel
+Uses ImageIO rather than JavaFX, so the simulation still runs without a window
+ */
+public class CollisionMask {
+
+    private static final int ALPHA_THRESHOLD = 128;     // Pixels at least half opaque are solid
+
+    private static final Map<EntityType, CollisionMask> MASKS = loadAll();
+
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    private final long[] bits;
+
+    private CollisionMask(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.bits = new long[wordsPerRow * height];
+    }
+
+    public static CollisionMask of(EntityType type) {
+        return MASKS.get(type);
+    }
+
+    // Does nothing itself, calling it loads the class, which builds every mask if that hasn't happened yet
+    public static void preload() {
+    }
+
+    // Every mask is built up front when the class loads, so worlds on different threads can share them
+    private static Map<EntityType, CollisionMask> loadAll() {
+        Map<EntityType, CollisionMask> masks = new EnumMap<>(EntityType.class);
+
+        for (EntityType type : EntityType.values()) {
+            masks.put(type, fromImage(type.spritePath, (int) Math.round(type.width), (int) Math.round(type.height)));
+        }
+
+        return masks;
+    }
+
+    // Samples the image's alpha channel at the given display size (nearest pixel, like the game's unsmoothed sprites)
+    private static CollisionMask fromImage(String path, int width, int height) {
+        BufferedImage image;
+        try (InputStream in = CollisionMask.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalStateException("Sprite " + path + " not found, the assets folder has to be on the classpath");
+            }
+            image = ImageIO.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + path, e);
+        }
+
+        CollisionMask mask = new CollisionMask(width, height);
+
+        for (int y = 0; y < height; y++) {
+            int sourceY = y * image.getHeight() / height;
+
+            for (int x = 0; x < width; x++) {
+                int sourceX = x * image.getWidth() / width;
+                int alpha = image.getRGB(sourceX, sourceY) >>> 24;
+
+                if (alpha >= ALPHA_THRESHOLD) {
+                    mask.bits[y * mask.wordsPerRow + (x >>> 6)] |= 1L << (x & 63);
+                }
+            }
+        }
+
+        return mask;
+    }
+
+    // True if any solid pixel of a, drawn with its top left corner at (ax, ay), covers a solid pixel of b drawn at (bx, by)
+    public static boolean overlaps(CollisionMask a, int ax, int ay, CollisionMask b, int bx, int by) {
+        int top = Math.max(ay, by);
+        int bottom = Math.min(ay + a.height, by + b.height);
+        int left = Math.max(ax, bx);
+        int right = Math.min(ax + a.width, bx + b.width);
+
+        if (top >= bottom || left >= right) {
+            return false;
+        }
+
+        // Only the words of a's rows which reach into the overlapping columns are compared
+        int firstWord = (left - ax) >>> 6;
+        int lastWord = (right - 1 - ax) >>> 6;
+        int shift = ax - bx;    // Pixel i of a's row is pixel i + shift of b's row
+
+        for (int y = top; y < bottom; y++) {
+            int rowA = (y - ay) * a.wordsPerRow;
+            int rowB = (y - by) * b.wordsPerRow;
+
+            for (int word = firstWord; word <= lastWord; word++) {
+                if ((a.bits[rowA + word] & b.bitsAt(rowB, (word << 6) + shift)) != 0) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    // 64 pixels of the row starting at the given column, columns outside the mask are empty
+    private long bitsAt(int row, int column) {
+        int word = Math.floorDiv(column, 64);
+        int offset = Math.floorMod(column, 64);
+
+        long low = wordAt(row, word) >>> offset;
+        long high = offset == 0 ? 0 : wordAt(row, word + 1) << (64 - offset);
+        return low | high;
+    }
+
+    private long wordAt(int row, int word) {
+        return (word >= 0 && word < wordsPerRow) ? bits[row + word] : 0;
+    }
+
+    // Number of solid pixels, e.g. to compare against the full rectangle
+    public int getSolidPixels() {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -1,26 +1,30 @@
-import javafx.geometry.BoundingBox;
-import javafx.geometry.Bounds;
-import javafx.scene.image.ImageView;
-
 // Handles collision detection
 public class CollisionUtils {
 
-    public static boolean intersects(ImageView a, ImageView b, double padding) {
-        Bounds b1 = a.getBoundsInParent();
-        Bounds b2 = b.getBoundsInParent();
+    public static boolean intersects(Entity a, Entity b, double padding) {
+        return intersects(a.x, a.y, a.width, a.height, b.x, b.y, b.width, b.height, padding);
+    }
 
-        // Create a variable hitbox for second object for better tuned gameplay
-        Bounds shrunkBounds = new BoundingBox(
-                b2.getMinX() + padding,
-                b2.getMinY() + padding,
-                b2.getWidth() - 2 * padding,
-                b2.getHeight() - 2 * padding
-        );
+    public static boolean intersects(Entity a, Entity b) {
+        return intersects(a, b, 0);
+    }
 
-        return b1.intersects(shrunkBounds);
+    // Pixel-accurate test, only compares the sprites' collision masks once their rectangles touch
+    public static boolean overlaps(Entity a, Entity b) {
+        return intersects(a, b) && CollisionMask.overlaps(
+                CollisionMask.of(a.type), (int) Math.round(a.x), (int) Math.round(a.y),
+                CollisionMask.of(b.type), (int) Math.round(b.x), (int) Math.round(b.y));
     }
 
-    public static boolean intersects(ImageView a, ImageView b) {
-        return intersects(a, b, 0);
+    // Create a variable hitbox for second object for better tuned gameplay
+    public static boolean intersects(double ax, double ay, double aWidth, double aHeight,
+                                     double bx, double by, double bWidth, double bHeight,
+                                     double padding) {
+        double bMinX = bx + padding;
+        double bMinY = by + padding;
+        double bMaxX = bx + bWidth - padding;
+        double bMaxY = by + bHeight - padding;
+
+        return ax <= bMaxX && ax + aWidth >= bMinX && ay <= bMaxY && ay + aHeight >= bMinY;
     }
 }
@@ -0,0 +1,60 @@
+import javafx.scene.Group;
+import javafx.scene.image.ImageView;
+
+/*
+Shows a number using a DigitStrip, one ImageView per digit
+Setting the value it already shows does nothing, and only the digits that changed get a new viewport
+ */
+public class DigitDisplay extends Group {
+
+    private static final int MAX_DIGITS = 10;
+
+    private final DigitStrip strip;
+    private final ImageView[] digitViews = new ImageView[MAX_DIGITS];
+    private final int[] shownDigits = new int[MAX_DIGITS];
+    private long shownValue = -1;
+
+    // x and y are where the first digit starts and where the baseline is, the same as a Text's position
+    public DigitDisplay(DigitStrip strip, double x, double y) {
+        this.strip = strip;
+
+        for (int i = 0; i < MAX_DIGITS; i++) {
+            digitViews[i] = new ImageView(strip.getImage());
+            digitViews[i].setX(x + i * strip.getCellWidth());
+            digitViews[i].setY(y - strip.getAscent());
+            digitViews[i].setVisible(false);
+            shownDigits[i] = -1;
+        }
+        getChildren().addAll(digitViews);
+    }
+
+    public void setValue(long value) {
+        if (value == shownValue) {
+            return;
+        }
+        shownValue = value;
+
+        value = Math.max(0, value);
+        int length = 1;
+        for (long rest = value / 10; rest > 0 && length < MAX_DIGITS; rest /= 10) {
+            length++;
+        }
+
+        // Digits are filled in from the last one, left aligned like the text this replaces
+        long rest = value;
+        for (int i = length - 1; i >= 0; i--) {
+            int digit = (int) (rest % 10);
+            rest /= 10;
+
+            if (shownDigits[i] != digit) {
+                shownDigits[i] = digit;
+                digitViews[i].setViewport(strip.getCell(digit));
+            }
+            digitViews[i].setVisible(true);
+        }
+
+        for (int i = length; i < MAX_DIGITS; i++) {
+            digitViews[i].setVisible(false);
+        }
+    }
+}
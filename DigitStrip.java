@@ -0,0 +1,76 @@
+import javafx.geometry.Bounds;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/*
+The digits 0-9 drawn once in the given font and colour into a single image, one equally wide cell per digit
+Numbers on the HUD are shown as views of these cells (see DigitDisplay), so a changing score never lays out text again
+Must be created on the JavaFX thread since the digits are rendered with Node.snapshot()
+ */
+public class DigitStrip {
+
+    private final WritableImage image;
+    private final Rectangle2D[] cells = new Rectangle2D[10];
+    private final double cellWidth;
+    private final double ascent;    // Distance from the top of a cell to the text baseline
+
+    public DigitStrip(Font font, Color color) {
+        Text[] digits = new Text[10];
+        double width = 0;
+        double top = 0;
+        double bottom = 0;
+
+        for (int d = 0; d < 10; d++) {
+            digits[d] = new Text(String.valueOf(d));
+            digits[d].setFont(font);
+            digits[d].setFill(color);
+
+            Bounds bounds = digits[d].getLayoutBounds();
+            width = Math.max(width, bounds.getWidth());
+            top = Math.min(top, bounds.getMinY());
+            bottom = Math.max(bottom, bounds.getMaxY());
+        }
+
+        cellWidth = Math.ceil(width);
+        ascent = -top;
+        int height = (int) Math.ceil(bottom - top);
+        image = new WritableImage((int) cellWidth * 10, Math.max(1, height));
+
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+
+        for (int d = 0; d < 10; d++) {
+            WritableImage digit = digits[d].snapshot(parameters, null);
+
+            // Each digit is centred in its cell and lined up on the shared baseline
+            int x = (int) (d * cellWidth + (cellWidth - digit.getWidth()) / 2);
+            int y = (int) Math.round(digits[d].getLayoutBounds().getMinY() - top);
+            int copyWidth = (int) Math.min(digit.getWidth(), image.getWidth() - x);
+            int copyHeight = (int) Math.min(digit.getHeight(), image.getHeight() - y);
+            image.getPixelWriter().setPixels(x, y, copyWidth, copyHeight, digit.getPixelReader(), 0, 0);
+
+            cells[d] = new Rectangle2D(d * cellWidth, 0, cellWidth, height);
+        }
+    }
+
+    public Image getImage() {
+        return image;
+    }
+
+    public Rectangle2D getCell(int digit) {
+        return cells[digit];
+    }
+
+    public double getCellWidth() {
+        return cellWidth;
+    }
+
+    public double getAscent() {
+        return ascent;
+    }
+}
@@ -0,0 +1,90 @@
+import java.nio.ByteBuffer;
+
+// Plain data for one object in the world: position, velocity, hitbox and movement/firing timers
+public class Entity {
+
+    private static final EntityType[] TYPES = EntityType.values();
+
+    public EntityType type;
+    public long id;             // Unique for every spawn, a pooled entity gets a new id each time it's reused
+    public boolean alive;
+
+    // Top left corner and hitbox size
+    public double x;
+    public double y;
+    public double width;
+    public double height;
+
+    // Distance moved every tick, used by projectiles
+    public double vx;
+    public double vy;
+
+    public ZigzagPath path;     // Path followed by enemies and power ups
+    public int ticksAlive;
+
+    // Position in the entity's EntityRegistry, and the generation checked handle it was given there
+    public int slot;
+    public long handle;
+
+    public Object view;         // Whatever the renderer uses to draw this entity, never read by the simulation
+
+    public void reset() {
+        type = null;
+        id = 0;
+        alive = false;
+        x = 0;
+        y = 0;
+        width = 0;
+        height = 0;
+        vx = 0;
+        vy = 0;
+        path = null;
+        ticksAlive = 0;
+        slot = -1;
+        handle = -1;
+        view = null;
+    }
+
+    // The 2 methods below save and load everything about the entity except its view (see SaveState)
+    public void write(ByteBuffer out) {
+        out.put((byte) type.ordinal());
+        out.putLong(id);
+        out.put((byte) (alive ? 1 : 0));
+        out.putDouble(x);
+        out.putDouble(y);
+        out.putDouble(vx);
+        out.putDouble(vy);
+        out.putInt(ticksAlive);
+        out.putInt(slot);
+        out.putLong(handle);
+        out.put((byte) (path != null ? 1 : 0));
+        if (path != null) {
+            path.write(out);
+        }
+    }
+
+    public void read(ByteBuffer in) {
+        type = TYPES[in.get()];
+        id = in.getLong();
+        alive = in.get() != 0;
+        x = in.getDouble();
+        y = in.getDouble();
+        width = type.width;
+        height = type.height;
+        vx = in.getDouble();
+        vy = in.getDouble();
+        ticksAlive = in.getInt();
+        slot = in.getInt();
+        handle = in.getLong();
+        path = in.get() != 0 ? ZigzagPath.read(in) : null;
+        view = null;
+    }
+
+    public double getCenterX() {
+        return x + width / 2;
+    }
+
+    public double getCenterY() {
+        return y + height / 2;
+    }
+}
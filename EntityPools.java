@@ -0,0 +1,42 @@
+// Shared pools for the sprites which are created and destroyed most often during a game
+public class EntityPools {
+
+    // Pool capacities can be tuned at launch, e.g. -Dpool.projectiles=512
+    public static final ObjectPool<Projectile> PROJECTILES =
+            new ObjectPool<>(Integer.getInteger("pool.projectiles", 256), Projectile::new, Projectile::reset);
+
+    public static final ObjectPool<EnemyProjectile> ENEMY_PROJECTILES =
+            new ObjectPool<>(Integer.getInteger("pool.enemyProjectiles", 256), EnemyProjectile::new, EnemyProjectile::reset);
+
+    public static final ObjectPool<Enemy> ENEMIES =
+            new ObjectPool<>(Integer.getInteger("pool.enemies", 64), Enemy::new, Enemy::reset);
+
+    public static final ObjectPool<Explosion> EXPLOSIONS =
+            new ObjectPool<>(Integer.getInteger("pool.explosions", 32), Explosion::new, Explosion::reset);
+
+    public static final ObjectPool<Salt> SALTS = new ObjectPool<>(2, Salt::new, Salt::reset);
+
+    public static final ObjectPool<Pepper> PEPPERS = new ObjectPool<>(2, Pepper::new, Pepper::reset);
+
+    // Picks the sprite used to draw an entity
+    public static EntityView acquire(EntityType type) {
+        return switch (type) {
+            case ENEMY -> ENEMIES.acquire();
+            case PLAYER_PROJECTILE -> PROJECTILES.acquire();
+            case ENEMY_PROJECTILE -> ENEMY_PROJECTILES.acquire();
+            case SALT -> SALTS.acquire();
+            case PEPPER -> PEPPERS.acquire();
+            case EXPLOSION -> EXPLOSIONS.acquire();
+            case PLAYER -> throw new IllegalArgumentException("The player sprite isn't pooled");
+        };
+    }
+
+    public static String getStats() {
+        return "projectiles: " + PROJECTILES + "\n" +
+                "enemy projectiles: " + ENEMY_PROJECTILES + "\n" +
+                "enemies: " + ENEMIES + "\n" +
+                "explosions: " + EXPLOSIONS + "\n" +
+                "salts: " + SALTS + "\n" +
+                "peppers: " + PEPPERS;
+    }
+}
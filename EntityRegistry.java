@@ -0,0 +1,184 @@
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.function.Supplier;
+
+/*
+Every live entity of one kind (e.g. all enemies), kept packed at the front of an array so iterating is a plain array walk
+Removing an entity moves the last one into its place (swap-remove), so removal is O(1) but doesn't keep the order
+Each entity also gets a handle made of a slot number and that slot's generation, the generation goes up whenever the slot
+is freed, so an old handle can always be told apart from the entity now using its slot:
+isLive(handle) and resolve(handle) are O(1) and never look at the scene graph
+Reads like a normal read-only List, entities are added and removed through add(Entity) and removeAt(int)
+ */
+public class EntityRegistry extends AbstractList<Entity> implements RandomAccess {
+
+    private Entity[] dense;         // Live entities, packed at the front
+    private int size = 0;
+
+    private int[] slotDense;        // Where each slot's entity is in dense
+    private int[] slotGeneration;   // Bumped every time the slot is freed
+    private int[] freeSlots;
+    private int freeCount = 0;
+    private int slotCount = 0;
+
+    public EntityRegistry(int capacity) {
+        dense = new Entity[capacity];
+        slotDense = new int[capacity];
+        slotGeneration = new int[capacity];
+        freeSlots = new int[capacity];
+    }
+
+    // Adds the entity and returns its handle, which is also stored in entity.handle
+    public long register(Entity entity) {
+        if (size == dense.length) {
+            dense = Arrays.copyOf(dense, size * 2);
+        }
+
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == slotDense.length) {
+                slotDense = Arrays.copyOf(slotDense, slotCount * 2);
+                slotGeneration = Arrays.copyOf(slotGeneration, slotCount * 2);
+                freeSlots = Arrays.copyOf(freeSlots, slotCount * 2);
+            }
+            slot = slotCount++;
+        }
+
+        dense[size] = entity;
+        slotDense[slot] = size;
+        size++;
+
+        entity.slot = slot;
+        entity.handle = handleOf(slot, slotGeneration[slot]);
+        return entity.handle;
+    }
+
+    // Removes the entity at the given position by moving the last entity into it, returns the removed entity
+    public Entity removeAt(int index) {
+        Entity removed = dense[index];
+        int last = --size;
+
+        if (index != last) {
+            Entity moved = dense[last];
+            dense[index] = moved;
+            slotDense[moved.slot] = index;
+        }
+        dense[last] = null;
+
+        slotGeneration[removed.slot]++;
+        freeSlots[freeCount++] = removed.slot;
+        return removed;
+    }
+
+    public void unregister(Entity entity) {
+        if (contains(entity)) {
+            removeAt(slotDense[entity.slot]);
+        }
+    }
+
+    public boolean isLive(long handle) {
+        int slot = (int) handle;
+        return slot >= 0 && slot < slotCount && slotGeneration[slot] == (int) (handle >>> 32);
+    }
+
+    // The entity the handle was given to, or null once it has been removed
+    public Entity resolve(long handle) {
+        return isLive(handle) ? dense[slotDense[(int) handle]] : null;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Entity entity && isLive(entity.handle) && dense[slotDense[entity.slot]] == entity;
+    }
+
+    @Override
+    public Entity get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return dense[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Removes everything, every handle given out so far stops being live
+    @Override
+    public void clear() {
+        while (size > 0) {
+            removeAt(size - 1);
+        }
+    }
+
+    /*
+    The 2 methods below save and load the registry exactly, entities included (see SaveState), so every handle given out
+    before a save is still live (or not) after loading it
+     */
+    public void write(ByteBuffer out) {
+        out.putInt(size);
+        out.putInt(slotCount);
+        out.putInt(freeCount);
+        for (int i = 0; i < slotCount; i++) {
+            out.putInt(slotGeneration[i]);
+        }
+        for (int i = 0; i < freeCount; i++) {
+            out.putInt(freeSlots[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            dense[i].write(out);
+        }
+    }
+
+    // Most bytes write() needs, entities take at most 80 bytes each
+    public int getSavedSize() {
+        return 12 + 4 * slotCount + 4 * freeCount + 80 * size;
+    }
+
+    // The registry has to be empty, entities are taken from the given source (e.g. a pool) and filled in
+    public void read(ByteBuffer in, Supplier<Entity> source) {
+        int newSize = in.getInt();
+        int newSlotCount = in.getInt();
+        int newFreeCount = in.getInt();
+        if (newSize < 0 || newSlotCount < newSize || newFreeCount < 0 || newFreeCount > newSlotCount
+                || 4L * (newSlotCount + newFreeCount) > in.remaining()) {
+            throw new IllegalArgumentException("Registry state is damaged");
+        }
+
+        int capacity = Math.max(slotDense.length, Math.max(newSize, newSlotCount));
+        if (capacity > slotDense.length) {
+            slotDense = new int[capacity];
+            slotGeneration = new int[capacity];
+            freeSlots = new int[capacity];
+        }
+        if (dense.length < newSize) {
+            dense = new Entity[capacity];
+        }
+
+        slotCount = newSlotCount;
+        freeCount = newFreeCount;
+        for (int i = 0; i < slotCount; i++) {
+            slotGeneration[i] = in.getInt();
+        }
+        for (int i = 0; i < freeCount; i++) {
+            freeSlots[i] = in.getInt();
+        }
+
+        size = newSize;
+        for (int i = 0; i < size; i++) {
+            Entity entity = source.get();
+            entity.read(in);
+            dense[i] = entity;
+            slotDense[entity.slot] = i;
+        }
+    }
+
+    private static long handleOf(int slot, int generation) {
+        return ((long) generation << 32) | (slot & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,20 @@
+// Every kind of object in the world along with its hitbox size (all sprites are square) and the sprite its collision mask comes from
+public enum EntityType {
+    PLAYER(75, 75, "/assets/sprite/pizza.png"),
+    ENEMY(75, 75, "/assets/sprite/enemy.png"),
+    PLAYER_PROJECTILE(50, 50, "/assets/projectile/projectile.png"),
+    ENEMY_PROJECTILE(50, 50, "/assets/projectile/enemy_projectile.png"),
+    SALT(75, 75, "/assets/sprite/salt.png"),
+    PEPPER(75, 75, "/assets/sprite/pepper.png"),
+    EXPLOSION(64, 64, "/assets/effect/explosion.png");
+
+    public final double width;
+    public final double height;
+    public final String spritePath;
+
+    EntityType(double width, double height, String spritePath) {
+        this.width = width;
+        this.height = height;
+        this.spritePath = spritePath;
+    }
+}
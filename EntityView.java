@@ -0,0 +1,52 @@
+import javafx.scene.image.ImageView;
+
+// Sprite drawn for one entity in the world, it only copies the entity's position and never changes the world
+public abstract class EntityView extends ImageView {
+
+    private Entity entity;
+    private long entityId;   // Entities are pooled, so the id tells whether the entity is still the one this view was made for
+
+    protected EntityView(String imagePath, double width) {
+        AssetManager.applySprite(this, imagePath);
+        this.setPreserveRatio(true);
+        this.setFitWidth(width);
+
+        // Returns the view to its pool once it's removed from the screen
+        this.parentProperty().addListener((unusedObs, unusedOldParent, newParent) -> {
+            if (newParent == null) {
+                entity = null;
+                release();
+            }
+        });
+    }
+
+    protected abstract void release();
+
+    public void reset() {
+        entity = null;
+        entityId = 0;
+        this.setVisible(true);
+        this.setOpacity(1.0);
+    }
+
+    public void bind(Entity entity) {
+        this.entity = entity;
+        this.entityId = entity.id;
+        entity.view = this;
+        sync();
+    }
+
+    // Loading a state (see World.readState()) keeps the entity and its id but clears its view, so that's checked too
+    public boolean isBound() {
+        return entity != null && entity.alive && entity.id == entityId && entity.view == this;
+    }
+
+    public boolean isBoundTo(Entity other) {
+        return entity == other && isBound();
+    }
+
+    public void sync() {
+        this.setX(entity.x);
+        this.setY(entity.y);
+    }
+}
@@ -0,0 +1,12 @@
+// Handles explosion visual shown when a sprite is destroyed, its lifetime is handled by World
+public class Explosion extends EntityView {
+
+    public Explosion() {
+        super("/assets/effect/explosion.png", 64);
+    }
+
+    @Override
+    protected void release() {
+        EntityPools.EXPLOSIONS.release(this);
+    }
+}
@@ -0,0 +1,221 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/*
+Times each phase of a tick and each frame with System.nanoTime() and keeps the results in latency histograms
+Also remembers the length and entity count of the most recent frames so hitches can be matched with busy moments
+ */
+public class FrameProfiler {
+
+    public enum Phase {
+        TIMERS,         // Timers which ran out: power ups ending, explosions fading, enemies firing
+        DIFFICULTY,
+        PLAYER,         // Player movement and firing
+        SPAWNING,       // Enemy spawning and firing, power up spawning
+        MOVEMENT,
+        COLLISION,      // Collision detection
+        RESOLVE,        // Applying the collisions found: damage, score, explosions, power ups
+        CLEANUP,        // Removing dead entities
+        WORLD_TICK,     // Everything above
+        REWIND,         // Keeping the tick for rewinding
+        RENDER,
+        UI,
+        FRAME           // A whole frame: every tick run in it, rendering, and UI
+    }
+
+    private static final int RECENT_FRAMES = 3600;     // About a minute at 60 FPS
+    private static final int ENTITY_BUCKET_SIZE = 250;
+    private static final int WARMUP_FRAMES = 120;       // Left out of the entity buckets, they're mostly class loading and JIT compiling
+    private static final int MIN_BUCKET_FRAMES = 200;   // Fewer frames than this are too few for a meaningful p99, so the bucket is shown but not judged
+    private static final long FRAME_BUDGET_NANOS = 1_000_000_000L / 60;
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Phase.values().length];
+    private boolean enabled = true;
+
+    // Ring buffer of the most recent frames
+    private final long[] recentFrameNanos = new long[RECENT_FRAMES];
+    private final int[] recentFrameEntities = new int[RECENT_FRAMES];
+    private long frameCount = 0;
+
+    // Frame times grouped by how many entities were alive, one histogram per 250 entities, created when first needed
+    private LatencyHistogram[] framesByEntities = new LatencyHistogram[0];
+
+    public FrameProfiler() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    // Returns the time a phase started, pass it to record() once the phase is done
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    // Records how long the phase took and returns the current time so the next phase can start from it
+    public long record(Phase phase, long startedAt) {
+        if (!enabled) {
+            return 0;
+        }
+
+        long now = System.nanoTime();
+        histograms[phase.ordinal()].record(now - startedAt);
+        return now;
+    }
+
+    public void recordFrame(long startedAt, int entityCount) {
+        if (!enabled) {
+            return;
+        }
+
+        long frameNanos = System.nanoTime() - startedAt;
+        histograms[Phase.FRAME.ordinal()].record(frameNanos);
+
+        int slot = (int) (frameCount % RECENT_FRAMES);
+        recentFrameNanos[slot] = frameNanos;
+        recentFrameEntities[slot] = entityCount;
+        frameCount++;
+
+        if (frameCount <= WARMUP_FRAMES) {
+            return;
+        }
+
+        int bucket = entityCount / ENTITY_BUCKET_SIZE;
+        if (bucket >= framesByEntities.length) {
+            framesByEntities = Arrays.copyOf(framesByEntities, bucket + 1);
+        }
+        if (framesByEntities[bucket] == null) {
+            framesByEntities[bucket] = new LatencyHistogram();
+        }
+        framesByEntities[bucket].record(frameNanos);
+    }
+
+    public LatencyHistogram getHistogram(Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        frameCount = 0;
+        framesByEntities = new LatencyHistogram[0];
+    }
+
+    // One line per phase with p50/p99/max in microseconds, phases which never ran (e.g. rendering without a window) are left out
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder(String.format("%-11s %8s %8s %8s%n", "phase (us)", "p50", "p99", "max"));
+
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram histogram = histograms[phase.ordinal()];
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            summary.append(String.format("%-11s %8.1f %8.1f %8.1f%n",
+                    phase.name().toLowerCase(),
+                    histogram.getPercentile(50) / 1000.0,
+                    histogram.getPercentile(99) / 1000.0,
+                    histogram.getMax() / 1000.0));
+        }
+
+        return summary.toString();
+    }
+
+    /*
+    Frame time against the number of entities alive, one line per 250 entities, in milliseconds, leaving out the warm-up frames
+    Ends with the highest entity count up to which 99% of frames still fit in a 60 FPS frame in every bucket with enough frames
+     */
+    public String getScalingSummary() {
+        StringBuilder summary = new StringBuilder(String.format("%-13s %8s %8s %8s %8s%n", "entities", "frames", "p50 ms", "p99 ms", "max ms"));
+        int holds60 = -1;
+        int judged = 0;
+        boolean missedBudget = false;
+
+        for (int bucket = 0; bucket < framesByEntities.length; bucket++) {
+            LatencyHistogram histogram = framesByEntities[bucket];
+            if (histogram == null) {
+                continue;
+            }
+
+            boolean enoughFrames = histogram.getCount() >= MIN_BUCKET_FRAMES;
+            summary.append(String.format("%5d-%-7d %8d %8.2f %8.2f %8.2f%s%n",
+                    bucket * ENTITY_BUCKET_SIZE, (bucket + 1) * ENTITY_BUCKET_SIZE - 1,
+                    histogram.getCount(),
+                    histogram.getPercentile(50) / 1e6,
+                    histogram.getPercentile(99) / 1e6,
+                    histogram.getMax() / 1e6,
+                    enoughFrames ? "" : "  (too few frames)"));
+
+            if (!enoughFrames) {
+                continue;
+            }
+            judged++;
+            if (histogram.getPercentile(99) <= FRAME_BUDGET_NANOS && !missedBudget) {
+                holds60 = (bucket + 1) * ENTITY_BUCKET_SIZE - 1;
+            } else {
+                missedBudget = true;
+            }
+        }
+
+        summary.append(judged == 0
+                ? "too few frames to tell whether it holds 60 FPS\n"
+                : holds60 < 0
+                ? "p99 frame time is over 16.7 ms from the start\n"
+                : "p99 frame time stays within 16.7 ms (60 FPS) up to " + holds60 + " entities\n");
+        return summary.toString();
+    }
+
+    /*
+    Writes every histogram and the recent frames to a CSV file, times are in nanoseconds
+    The second table lists frames oldest first with the number of entities alive at the end of each frame
+    The third table is frame time by entity count, as in getScalingSummary()
+     */
+    public void writeCsv(Path path) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+            out.println("phase,count,mean,p50,p90,p99,p99.9,max");
+
+            for (Phase phase : Phase.values()) {
+                LatencyHistogram histogram = histograms[phase.ordinal()];
+                out.printf("%s,%d,%.0f,%d,%d,%d,%d,%d%n",
+                        phase.name().toLowerCase(),
+                        histogram.getCount(),
+                        histogram.getMean(),
+                        histogram.getPercentile(50),
+                        histogram.getPercentile(90),
+                        histogram.getPercentile(99),
+                        histogram.getPercentile(99.9),
+                        histogram.getMax());
+            }
+
+            out.println();
+            out.println("frame,frame_nanos,entities");
+
+            long first = Math.max(0, frameCount - RECENT_FRAMES);
+            for (long frame = first; frame < frameCount; frame++) {
+                int slot = (int) (frame % RECENT_FRAMES);
+                out.printf("%d,%d,%d%n", frame, recentFrameNanos[slot], recentFrameEntities[slot]);
+            }
+
+            out.println();
+            out.println("entities_from,entities_to,frames,p50,p99,max");
+
+            for (int bucket = 0; bucket < framesByEntities.length; bucket++) {
+                LatencyHistogram histogram = framesByEntities[bucket];
+                if (histogram != null) {
+                    out.printf("%d,%d,%d,%d,%d,%d%n", bucket * ENTITY_BUCKET_SIZE, (bucket + 1) * ENTITY_BUCKET_SIZE - 1,
+                            histogram.getCount(), histogram.getPercentile(50), histogram.getPercentile(99), histogram.getMax());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+import java.util.function.LongSupplier;
+
+/*
+Monotonic game time in nanoseconds, which can be paused, slowed down, or sped up
+It follows a nanosecond time source (System.nanoTime() by default) scaled by the time scale, and stands still while paused
+Clocks created with manual() only move when advanced by hand, which is how the world keeps its time tied to its tick count
+ */
+public class GameClock {
+
+    public static final long NANOS_PER_SECOND = 1_000_000_000L;
+    public static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final LongSupplier source;
+    private long lastSourceTime;
+    private long nanos = 0;
+    private double remainder = 0;   // Fraction of a nanosecond left over by scaling, so slow motion doesn't lose time
+    private double scale = 1.0;
+    private boolean paused = false;
+
+    public GameClock(LongSupplier source) {
+        this.source = source;
+        this.lastSourceTime = source.getAsLong();
+    }
+
+    public static GameClock system() {
+        return new GameClock(System::nanoTime);
+    }
+
+    public static GameClock manual() {
+        return new GameClock(() -> 0);
+    }
+
+    // Catches up with the time source and returns the new game time
+    public long update() {
+        long sourceTime = source.getAsLong();
+        long elapsed = sourceTime - lastSourceTime;
+        lastSourceTime = sourceTime;
+
+        if (!paused && elapsed > 0) {
+            double scaled = elapsed * scale + remainder;
+            long whole = (long) scaled;
+            remainder = scaled - whole;
+            nanos += whole;
+        }
+
+        return nanos;
+    }
+
+    // Moves the clock forward by hand, ignoring pause and scale
+    public void advance(long elapsedNanos) {
+        nanos += Math.max(0, elapsedNanos);
+    }
+
+    public void advanceTo(long newNanos) {
+        nanos = Math.max(nanos, newNanos);
+    }
+
+    // Sets the time directly, even backwards, e.g. when a saved world is loaded
+    public void restore(long nanos) {
+        this.nanos = nanos;
+        remainder = 0;
+    }
+
+    public long nanoTime() {
+        return nanos;
+    }
+
+    public long millis() {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    public void pause() {
+        update();
+        paused = true;
+    }
+
+    public void resume() {
+        update();
+        paused = false;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    // 1 is real time, 0.5 is half speed, 60 plays an hour in a minute
+    public void setScale(double scale) {
+        if (!(scale > 0)) {
+            throw new IllegalArgumentException("Time scale must be positive: " + scale);
+        }
+
+        update();
+        this.scale = scale;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    public static long millisToNanos(long millis) {
+        return millis * NANOS_PER_MILLI;
+    }
+}
@@ -2,301 +2,518 @@ import javafx.animation.AnimationTimer;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.Pane;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.HashSet;
 import java.util.Set;
 
 /*
-Controls overall game logic, keeping track of player and every object on screen
-and handles updating everything each frame
+Connects the JavaFX window to the world: runs the game loop, passes player input to the world,
+plays sounds and effects when the world reports an event, and draws the world after every frame
  */
-public class GameManager {
+public class GameManager implements WorldListener {
 
     private final Pane gamePane;    // Pane with game objects such as character sprites
     private final Pane uiPane;      // Pane with UI elements such as score
     private final UIManager uiManager;
-    private final GameState gameState;
+    private final World world;
+    private final Renderer renderer;
 
     private final Set<KeyCode> keysPressed = new HashSet<>();
-    private final Set<Enemy> activeEnemies = new HashSet<>();
-    private final Set<EnemyProjectile> activeEnemyProjectiles = new HashSet<>();
-    private final Set<Projectile> activePlayerProjectiles = new HashSet<>();
-    private final Set<Double> fireOffsets = new HashSet<>();    // Used when creating projectiles fired from clones once power up is activated
 
-    private AnimationTimer gameTimer;   // Main game loop
-    private PizzaSprite pizzaMain;      // Player sprite
-    private PizzaSprite leftClone;      // Clones of player sprite, used once power up is activated
-    private PizzaSprite rightClone;
-
-    private boolean spacePressed = false;
-
-    // Used in fire rate, spawn rate for enemies and power ups, and increasing difficulty as time progresses
-    private long timeSinceLastFired = 0;
-    private long timeSinceLastSpawned = 0;
-    private long timeSincePowerUpLastSpawned = 0;
-    private long lastSpawnDifficultyIncrease = 0;
-
-    private long FIRE_COOLDOWN = 750;   // Player firing cooldown
-    private long SPAWN_COOLDOWN = 1250; // Enemy spawning cooldown
-    private final long POWER_UP_SPAWN_COOLDOWN = 20000;
+    // Every moving object is advanced by one fixed-length tick at a time, no matter the display's frame rate
+    private static final long TICK_NANOS = 1_000_000_000L / World.TICKS_PER_SECOND;
+    private static final int MAX_TICKS_PER_FRAME = 5;  // Stops the loop from spiralling after a long stall, multiplied when sped up
+    private static final double MIN_TIME_SCALE = 0.125;
+    private static final double MAX_TIME_SCALE = 64;
+    private static final Path QUICKSAVE_PATH = Path.of("quicksave.pzw");    // F5 saves the game here, F9 loads it
+    private static final int REWIND_BUDGET = Integer.getInteger("rewind.mb", 32) * 1024 * 1024;  // Memory kept for rewinding, -Drewind.mb=
+    private static final int KILL_CAM_TICKS = 2 * World.TICKS_PER_SECOND;  // How far back the kill cam starts
+    private static final int KILL_CAM_SLOWDOWN = 2;     // The kill cam plays at half speed
+    private static final int REWIND_SPEED = 2;          // Ticks stepped back per tick while backspace is held
+
+    private final BackgroundManager backgroundManager;
+    private final AnimationTimer gameTimer;   // Main game loop, the only animation timer driving the game
+    private final GameClock clock = GameClock.system();    // Decides how many ticks each frame runs, P pauses it and [ ] change its speed
+    private long lastClockTime = 0;
+    private long tickAccumulator = 0;
+    private boolean gameRunning = false;    // False until the player presses enter on the start screen
 
     private final Runnable showContinueScreenCallback;  // Callback function that runs when the game ends
 
-    public GameManager(Pane gamePane, Pane uiPane, UIManager uiManager, GameState gameState, Runnable showContinueScreenCallback) {
+    // Every tick of the current game is kept here, for the kill cam and for rewinding with backspace
+    private final RewindBuffer rewind = new RewindBuffer(REWIND_BUDGET);
+    private boolean gameOverPending = false;    // Set by onGameOver(), the kill cam starts once that tick is recorded
+    private long killCamTick = -1;      // Tick the kill cam shows next, -1 when it isn't playing
+    private long killCamEnd;            // Tick the game ended on
+    private int killCamSteps;
+    private boolean rewinding = false;  // True while backspace is held
+    private boolean practiced = false;  // Set once the game has been rewound or loaded from a save, so its score isn't saved
+
+    private Path recordingPath;      // Set when the session should be recorded (--record)
+    private InputReplay replay;      // Set when a recorded session is being played back (--replay)
+    private ScoreStore scoreStore;   // Saves the score of every game played, null if scores aren't kept
+    private SnapshotServer server;   // Streams every tick to viewers (--serve)
+    private SnapshotClient viewing;  // Set when this window only shows a game running on a server (--view)
+
+    private final FrameProfiler profiler;
+    private final PerfOverlay perfOverlay;     // Toggled with F3, F4 writes the timings to a CSV file
+
+    public GameManager(Pane gamePane, Pane uiPane, UIManager uiManager, BackgroundManager backgroundManager, Renderer renderer, GameState gameState, Runnable showContinueScreenCallback) {
         this.gamePane = gamePane;
         this.uiPane = uiPane;
         this.uiManager = uiManager;
-        this.gameState = gameState;
+        this.backgroundManager = backgroundManager;
         this.showContinueScreenCallback = showContinueScreenCallback;
+
+        world = new World(gameState);
+        world.setListener(this);
+        this.renderer = renderer;
+        profiler = world.getProfiler();
+        perfOverlay = new PerfOverlay(uiPane, profiler);
+
+        gameTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                runTicks();
+            }
+        };
+    }
+
+    // Starts the main loop, the background scrolls on the start and continue screens as well
+    public void startLoop() {
+        gameTimer.start();
+    }
+
+    // Runs as many fixed ticks as the game time since the last frame allows, then draws the result once
+    private void runTicks() {
+        if (viewing != null) {
+            showServerGame();
+            return;
+        }
+
+        long frameStart = profiler.start();
+
+        long clockTime = clock.update();
+        tickAccumulator += clockTime - lastClockTime;
+        lastClockTime = clockTime;
+
+        int maxTicks = MAX_TICKS_PER_FRAME * (int) Math.ceil(Math.max(1, clock.getScale()));
+        int ticks = 0;
+        while (tickAccumulator >= TICK_NANOS && ticks < maxTicks) {
+            backgroundManager.update();
+
+            if (killCamTick >= 0) {
+                stepKillCam();
+            } else if (rewinding) {
+                stepRewind();
+            } else if (gameRunning) {
+                if (replay != null) {
+                    replayTick();
+                }
+
+                long tickStart = profiler.start();
+                world.tick();
+                tickStart = profiler.record(FrameProfiler.Phase.WORLD_TICK, tickStart);
+
+                // Ticks after the game ended are only the last explosions fading, there's nothing to rewind to
+                if (isRewindable() && (!world.isGameOver() || gameOverPending)) {
+                    rewind.record(world);
+                    profiler.record(FrameProfiler.Phase.REWIND, tickStart);
+                }
+                if (gameOverPending) {
+                    gameOverPending = false;
+                    startKillCam();
+                }
+
+                if (server != null) {
+                    server.publish(world);
+                }
+            }
+
+            tickAccumulator -= TICK_NANOS;
+            ticks++;
+        }
+
+        if (ticks == maxTicks) {
+            tickAccumulator = 0;
+        }
+
+        if (gameRunning) {
+            long phaseStart = profiler.start();
+            renderer.render(world);
+            phaseStart = profiler.record(FrameProfiler.Phase.RENDER, phaseStart);
+
+            uiManager.updateScore();
+            uiManager.updateLives();
+            profiler.record(FrameProfiler.Phase.UI, phaseStart);
+
+            profiler.recordFrame(frameStart, world.getEntityCount());
+        }
+
+        perfOverlay.update();
     }
 
     // The 2 functions below handle player input
     public void handleKeyPress(KeyCode code) {
         keysPressed.add(code);
 
-        if (code == KeyCode.SPACE) {
-            spacePressed = true;
+        updateInput();
+
+        if (code == KeyCode.F3) {
+            perfOverlay.toggle();
+        } else if (code == KeyCode.F4) {
+            perfOverlay.writeCsv();
+        } else if (code == KeyCode.P) {
+            togglePause();
+        } else if (code == KeyCode.OPEN_BRACKET) {
+            setTimeScale(clock.getScale() / 2);
+        } else if (code == KeyCode.CLOSE_BRACKET) {
+            setTimeScale(clock.getScale() * 2);
+        } else if (code == KeyCode.F5) {
+            saveState(QUICKSAVE_PATH);
+        } else if (code == KeyCode.F9) {
+            loadState(QUICKSAVE_PATH);
+        } else if (code == KeyCode.BACK_SPACE) {
+            startRewind();
+        }
+    }
+
+    // The 2 methods below control game time, which the whole game (background included) runs on
+    public void togglePause() {
+        if (clock.isPaused()) {
+            clock.resume();
+        } else {
+            clock.pause();
         }
+        uiManager.updateClockStatus(clock.isPaused(), clock.getScale());
+    }
+
+    // 1 is normal speed, the game can be slowed down to 1/8 or sped up to 64x
+    public void setTimeScale(double scale) {
+        clock.setScale(Math.max(MIN_TIME_SCALE, Math.min(MAX_TIME_SCALE, scale)));
+        uiManager.updateClockStatus(clock.isPaused(), clock.getScale());
     }
 
     public void handleKeyRelease(KeyCode code) {
         keysPressed.remove(code);
 
-        if (code == KeyCode.SPACE) {
-            spacePressed = false;
+        if (code == KeyCode.BACK_SPACE) {
+            stopRewind();
+        }
+
+        updateInput();
+    }
+
+    // The kill cam and rewinding overwrite the world's input with the one kept for each tick, so it's only set once they're done
+    private void updateInput() {
+        if (replay == null && killCamTick < 0 && !rewinding) {
+            world.setInput(getInput());
         }
     }
 
+    // Converts the keys currently held down into the world's input bit mask
+    private int getInput() {
+        int input = 0;
+        if (keysPressed.contains(KeyCode.UP)) input |= World.INPUT_UP;
+        if (keysPressed.contains(KeyCode.DOWN)) input |= World.INPUT_DOWN;
+        if (keysPressed.contains(KeyCode.LEFT)) input |= World.INPUT_LEFT;
+        if (keysPressed.contains(KeyCode.RIGHT)) input |= World.INPUT_RIGHT;
+        if (keysPressed.contains(KeyCode.SPACE)) input |= World.INPUT_FIRE;
+        return input;
+    }
+
     // Sets up the game screen with objects, UI, and background
     public void startGame() {
-        lastSpawnDifficultyIncrease = System.currentTimeMillis();
+        world.reset();
+        rewind.clear();
+        practiced = false;
 
-        pizzaMain = new PizzaSprite((384 - (75 / 2.0)), 800);
-        gamePane.getChildren().add(pizzaMain);
+        // Recording starts from the freshly reset world, so a replay starts from the same state
+        if (recordingPath != null) {
+            world.startRecording(new InputRecording(world));
+        }
+
+        renderer.showPlayer();
         uiManager.setupGameUI();
         uiManager.updateLives();
 
-        gameTimer = new AnimationTimer() {
-            @Override
-            public void handle(long l) {
-                updateGameLoop();
-            }
-        };
-        gameTimer.start();
+        gameRunning = true;
     }
 
-    // Primary updating logic for every game interaction and element
-    private void updateGameLoop() {
-        long now = System.currentTimeMillis();
+    // The methods below are called by the world when something happens which should be seen or heard
+    @Override
+    public void onPlayerFired() {
+        SoundManager.playBlasterSound();
+    }
 
-        updateDifficulty(now);
-        handlePlayerMovement();
-        handlePlayerFiring(now);
-        handleEnemySpawning(now);
-        handlePowerUpSpawning(now);
+    @Override
+    public void onEnemyFired() {
+        SoundManager.playEnemyBlasterSound();
+    }
 
-        activeEnemyProjectiles.removeIf(enemyProjectile -> !gamePane.getChildren().contains(enemyProjectile));
-        activePlayerProjectiles.removeIf(projectile -> !gamePane.getChildren().contains(projectile));
+    @Override
+    public void onEnemyDestroyed(Entity enemy) {
+        SoundManager.playExplosionSound();
+    }
 
-        uiManager.updateScore();
+    @Override
+    public void onPlayerHit() {
+        SoundManager.playExplosionSound();
+        renderer.flashPlayer();
+    }
+
+    @Override
+    public void onPowerUpCollected(EntityType type) {
+        SoundManager.playPowerUpSound();
+        renderer.flashPlayer();
+    }
+
+    // Shows the final explosion and the continue screen once the player runs out of life, after the kill cam if there is one
+    @Override
+    public void onGameOver() {
+        saveScore();
+        SoundManager.playGameOverSound();
         uiManager.updateLives();
 
-        CollisionManager.update(
-                gamePane,
-                uiPane,
-                pizzaMain,
-                gameState,
-                uiManager.getScoreText(),
-                uiManager.getHighScoreText(),
-                uiManager.getLifeIcon1(),
-                uiManager.getLifeIcon2(),
-                uiManager.getLifeIcon3(),
-                gameTimer,
-                showContinueScreenCallback,
-                activeEnemies,
-                newCooldown -> FIRE_COOLDOWN = newCooldown,
-                this::enablePepperShot,
-                this::disablePepperShot
-        );
-    }
-
-    // Increases enemy spawn rate very 30 seconds
-    private void updateDifficulty(long now) {
-        if (now - lastSpawnDifficultyIncrease >= 30000 && SPAWN_COOLDOWN > 1000) {
-            SPAWN_COOLDOWN -= 50;
-            lastSpawnDifficultyIncrease = now;
+        if (isRewindable()) {
+            gameOverPending = true;
+            return;
         }
-    }
 
-    private void handlePlayerMovement() {
-        double dx = 0;
-        double dy = 0;
-        double speed = 3;
+        renderer.render(world);
+        showContinueScreenCallback.run();
+    }
 
-        // Shift x/y direction depending on input
-        if (keysPressed.contains(KeyCode.UP)) dy -= speed;
-        if (keysPressed.contains(KeyCode.DOWN)) dy += speed;
-        if (keysPressed.contains(KeyCode.LEFT)) dx -= speed;
-        if (keysPressed.contains(KeyCode.RIGHT)) dx += speed;
+    // Resets all values to default on game restart
+    public void resetGame() {
+        world.reset();
+        rewind.clear();
+        practiced = false;
 
-        // Used for keeping player sprite within screen boundary, even if clones are currently activated
-        double mainX = pizzaMain.getX();
-        double mainY = pizzaMain.getY();
-        double mainWidth = pizzaMain.getBoundsInParent().getWidth();
-        double mainHeight = pizzaMain.getBoundsInParent().getHeight();
+        uiPane.getChildren().removeIf(node -> node instanceof LifeIcon);
+        renderer.render(world);
 
-        double leftOffset = 0;
-        double rightOffset = 0;
-        if (leftClone != null) leftOffset = fireOffsets.stream().filter(o -> o < 0).min(Double::compareTo).orElse(-80.0);
-        if (rightClone != null) rightOffset = fireOffsets.stream().filter(o -> o > 0).max(Double::compareTo).orElse(80.0);
+        uiManager.hideContinueScreen();
+        uiManager.setupGameUI();
+        uiManager.updateLives();
+        uiManager.updateScore();
 
-        double leftEdge = mainX + leftOffset;
-        double rightEdge = mainX + mainWidth + rightOffset;
-        double topEdge = mainY;
-        double bottomEdge = mainY + mainHeight;
+        gameRunning = true;
+    }
 
-        if (leftEdge + dx < 0) dx += - (leftEdge + dx);
-        if (rightEdge + dx > gamePane.getWidth()) dx -= (rightEdge + dx - gamePane.getWidth());
+    // Loads the saved high score into the game, every game from now on is saved to the store when it ends
+    public void setScoreStore(ScoreStore scoreStore) {
+        this.scoreStore = scoreStore;
+        GameState state = world.getState();
+        state.highScore = Math.max(state.highScore, scoreStore.getHighScore());
+    }
 
-        if (topEdge + dy < 0) dy += - (topEdge + dy);
-        if (bottomEdge + dy > gamePane.getHeight()) dy -= (bottomEdge + dy - gamePane.getHeight());
+    // Replays, stress runs, and rewound or loaded games aren't real games, so they don't go on the leaderboard
+    private void saveScore() {
+        if (scoreStore == null || replay != null || isStressTesting() || practiced) {
+            return;
+        }
 
-        pizzaMain.setX(mainX + dx);
-        pizzaMain.setY(mainY + dy);
+        scoreStore.record(new ScoreStore.Entry(world.getState().score, System.currentTimeMillis(), world.getGameTicks(), world.getSeed()));
     }
 
+    /*
+    The methods below replay the last few seconds when the game ends (the kill cam) and rewind the game while backspace is held
+    Both restore ticks kept in the rewind buffer into the world itself, so the renderer and UI follow along like in a normal game
+    Stress runs are too big to keep for long, and viewing never ticks the world, so neither keeps ticks
+     */
+    private boolean isRewindable() {
+        return viewing == null && !isStressTesting();
+    }
 
-    // Handles fire rate with and without clones activated
-    private void handlePlayerFiring(long now) {
-        if (!spacePressed || now - timeSinceLastFired < FIRE_COOLDOWN) {
+    private void startKillCam() {
+        if (rewind.isEmpty()) {
+            showContinueScreenCallback.run();
             return;
         }
 
-        double baseX = pizzaMain.getX();
-        double baseY = pizzaMain.getY();
-        double halfWidth = pizzaMain.getFitWidth() / 2;
-
-        fireProjectile(baseX + halfWidth, baseY);
+        killCamEnd = rewind.getNewestTick();
+        killCamTick = Math.max(rewind.getOldestTick(), killCamEnd - KILL_CAM_TICKS);
+        killCamSteps = 0;
+        uiManager.updateRewindStatus("kill cam");
+    }
 
-        for (double offset : fireOffsets) {
-            fireProjectile(baseX + halfWidth + offset, baseY);
+    // Shows one kill cam tick every KILL_CAM_SLOWDOWN ticks, and leaves the world as the game ended once it's done
+    private void stepKillCam() {
+        if (killCamSteps++ % KILL_CAM_SLOWDOWN != 0) {
+            return;
         }
 
-        SoundManager.playBlasterSound();
-        timeSinceLastFired = now;
+        rewind.restore(world, killCamTick);
+        if (killCamTick++ == killCamEnd) {
+            killCamTick = -1;
+            uiManager.updateRewindStatus(null);
+            updateInput();
+            showContinueScreenCallback.run();
+        }
     }
 
-    // Manages current on-screen enemies and their spawn rate
-    private void handleEnemySpawning(long now) {
-        if (now - timeSinceLastSpawned >= SPAWN_COOLDOWN) {
-            Enemy enemy = new Enemy();
-            enemy.spawn(gamePane);
-            activeEnemies.add(enemy);
-            timeSinceLastSpawned = now;
+    // Rewinding would make recordings and replays play out differently, so like loading it's only allowed in a normal game
+    private void startRewind() {
+        if (!gameRunning || world.isGameOver() || killCamTick >= 0 || !isRewindable() || rewind.isEmpty()) {
+            return;
         }
+        if (replay != null || world.getRecording() != null) {
+            System.err.println("Games can't be rewound while recording or replaying");
+            return;
+        }
+
+        rewinding = true;
+        practiced = true;
+        uiManager.updateRewindStatus("rewind");
+    }
 
-        activeEnemies.removeIf(enemy -> !gamePane.getChildren().contains(enemy));
+    private void stepRewind() {
+        long tick = Math.max(rewind.getOldestTick(), world.getTick() - REWIND_SPEED);
+        rewind.restore(world, tick);
+    }
 
-        for (Enemy enemy : activeEnemies) {
-            enemy.fire(gamePane, activeEnemyProjectiles);
+    // The game carries on from the tick rewound to, the ticks after it are dropped
+    private void stopRewind() {
+        if (!rewinding) {
+            return;
         }
+
+        rewinding = false;
+        rewind.truncateAfter(world.getTick());
+        uiManager.updateRewindStatus(null);
     }
 
-    private void fireProjectile(double x, double y) {
-        Projectile projectile = new Projectile();
-        projectile.fire(x, y, gamePane);
-        activePlayerProjectiles.add(projectile);
+    // The methods below stream the game to other windows, or show a game streamed from another one
+    public void serve(SnapshotServer server) {
+        this.server = server;
     }
 
-    // Randomizes between salt and pepper power up spawn
-    private void handlePowerUpSpawning(long now) {
-        if (now - timeSincePowerUpLastSpawned >= POWER_UP_SPAWN_COOLDOWN) {
-            if (Math.random() >= 0.5) {
-                Salt salt = new Salt();
-                salt.spawn(gamePane);
-            } else {
-                Pepper pepper = new Pepper();
-                pepper.spawn(gamePane);
-            }
-            timeSincePowerUpLastSpawned = now;
+    public void watch(SnapshotClient client) {
+        viewing = client;
+    }
+
+    public boolean isViewing() {
+        return viewing != null;
+    }
+
+    // The world is never ticked while viewing, it's overwritten with the server's newest snapshot every frame instead
+    private void showServerGame() {
+        backgroundManager.update();
+
+        if (gameRunning) {
+            long frameStart = profiler.start();
+            viewing.applyTo(world);
+            renderer.render(world);
+            uiManager.updateScore();
+            uiManager.updateLives();
+            profiler.recordFrame(frameStart, world.getEntityCount());
         }
+
+        perfOverlay.update();
     }
 
-    // Adds clone sprite positions used for projectile firing
-    public void enablePepperShot() {
-        if (leftClone != null) {
+    // The 2 methods below save the whole game to a file and load it back (see SaveState), both only during a game
+    public void saveState(Path path) {
+        if (!gameRunning || viewing != null || world.isGameOver()) {
             return;
         }
 
-        fireOffsets.clear();
-        fireOffsets.add(-80.0);
-        fireOffsets.add(80.0);
+        try {
+            SaveState.save(world, path);
+            System.out.println("Game saved to " + path.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Could not save the game: " + e.getMessage());
+        }
+    }
 
-        leftClone = new PizzaSprite(0, 0);
-        rightClone = new PizzaSprite(0, 0);
+    // Loading would make recordings and replays play out differently, so it's only allowed in a normal game
+    public void loadState(Path path) {
+        if (!gameRunning || world.isGameOver()) {
+            return;
+        }
+        if (replay != null || viewing != null || world.getRecording() != null) {
+            System.err.println("Games can't be loaded while recording, replaying, or viewing");
+            return;
+        }
 
-        leftClone.xProperty().bind(pizzaMain.xProperty().add(-80));
-        leftClone.yProperty().bind(pizzaMain.yProperty());
+        try {
+            SaveState.load(world, path);
+        } catch (IOException e) {
+            System.err.println("Could not load the game: " + e.getMessage());
+            return;
+        }
 
-        rightClone.xProperty().bind(pizzaMain.xProperty().add(80));
-        rightClone.yProperty().bind(pizzaMain.yProperty());
+        // Ticks from before the load aren't part of this game any more
+        rewind.clear();
+        practiced = true;
 
-        gamePane.getChildren().addAll(leftClone, rightClone);
+        renderer.render(world);
+        uiManager.updateLives();
+        uiManager.updateScore();
     }
 
-    public void disablePepperShot() {
-        fireOffsets.clear();
+    // The methods below handle recording a session and playing one back at normal speed
+    public void setSeed(long seed) {
+        world.setSeed(seed);
+    }
 
-        if (leftClone != null) {
-            gamePane.getChildren().remove(leftClone);
-            leftClone = null;
-        }
+    public void recordTo(Path path) {
+        recordingPath = path;
+    }
 
-        if (rightClone != null) {
-            gamePane.getChildren().remove(rightClone);
-            rightClone = null;
-        }
+    public void replay(InputRecording recording) {
+        recording.applySettings(world);
+        replay = new InputReplay(recording);
     }
 
-    // Resets all values to default on game restart
-    public void resetGame() {
-        gameState.life = 3;
-        gameState.score = 0;
-        FIRE_COOLDOWN = 750;
-        SPAWN_COOLDOWN = 1250;
-        lastSpawnDifficultyIncrease = System.currentTimeMillis();
+    // Stress mode, see World.setStressTarget()
+    public void setStressTarget(int entities) {
+        world.setStressTarget(entities);
+    }
 
-        fireOffsets.clear();
+    public boolean isStressTesting() {
+        return world.getStressTarget() > 0;
+    }
 
-        if (leftClone != null) {
-            gamePane.getChildren().remove(leftClone);
-        }
+    public boolean isReplaying() {
+        return replay != null;
+    }
+
+    // Applies the recorded input for the coming tick, restarts are replayed through resetGame() so the UI follows along
+    private void replayTick() {
+        replay.apply(world, this::resetGame);
 
-        if (rightClone != null) {
-            gamePane.getChildren().remove(rightClone);
+        if (replay.isFinished(world)) {
+            boolean matches = world.getChecksum() == replay.getRecording().getFinalChecksum();
+            System.out.println("Replay finished, final state " + (matches ? "matches the recording" : "DOES NOT MATCH the recording"));
+            gameRunning = false;
+            replay = null;
         }
+    }
 
-        gamePane.getChildren().removeIf(node ->
-                node instanceof Enemy ||
-                node instanceof Projectile ||
-                node instanceof EnemyProjectile ||
-                node instanceof Salt ||
-                node instanceof Pepper ||
-                node instanceof LifeIcon);
+    // Writes the recording, if there is one, called when the game closes
+    public void saveRecording() {
+        InputRecording recording = world.getRecording();
+        if (recording == null || recordingPath == null) {
+            return;
+        }
 
-        activeEnemies.clear();
-        activeEnemyProjectiles.clear();
-        activePlayerProjectiles.clear();
+        recording.finish(world);
 
-        pizzaMain.setX(384 - 75 / 2.0);
-        pizzaMain.setY(800);
-        pizzaMain.setVisible(true);
+        try {
+            recording.write(recordingPath);
+            System.out.println("Session recorded to " + recordingPath.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Could not write recording: " + e.getMessage());
+        }
 
-        uiManager.hideContinueScreen();
-        uiManager.setupGameUI();
-        uiManager.updateLives();
-        uiManager.updateScore();
+        recordingPath = null;
+    }
 
-        gameTimer.start();
+    public World getWorld() {
+        return world;
     }
 }
 
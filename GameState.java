@@ -4,6 +4,6 @@ public class GameState {
     public int score = 0;
     public int highScore = 0;
 
-    public long timeSinceLastTookDamage = 0;
+    public long timeSinceLastTookDamage = 0;    // Game clock time (nanoseconds) of the last hit, the invulnerability after it runs on World's timer wheel
 
 }
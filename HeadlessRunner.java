@@ -0,0 +1,64 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+/*
+Runs the world without a window as fast as the CPU allows, used for profiling the game logic on its own
+The player moves randomly and holds fire, a new game starts whenever the player runs out of life
+The session can be saved and played back later with ReplayRunner
+Each tick is recorded as a frame, so -Dstress=5000 (stress mode with that many entities) prints tick cost by entity count
+Usage: java [-Dstress=N] HeadlessRunner [ticks] [recording]
+ */
+public class HeadlessRunner {
+
+    public static void main(String[] args) throws IOException {
+        long ticks = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+
+        World world = new World(new GameState());
+        world.setStressTarget(Integer.getInteger("stress", 0));
+        FrameProfiler profiler = world.getProfiler();
+        if (args.length > 1) {
+            world.startRecording(new InputRecording(world));
+        }
+        Random inputRandom = new Random();
+        int[] moves = {0, World.INPUT_LEFT, World.INPUT_RIGHT, World.INPUT_UP, World.INPUT_DOWN};
+
+        int gamesPlayed = 1;
+        int peakEntities = 0;
+        long start = System.nanoTime();
+
+        for (long i = 0; i < ticks; i++) {
+
+            // Picks a new direction every half second of game time
+            if (i % 30 == 0) {
+                world.setInput(World.INPUT_FIRE | moves[inputRandom.nextInt(moves.length)]);
+            }
+
+            long tickStart = profiler.start();
+            world.tick();
+            profiler.recordFrame(tickStart, world.getEntityCount());
+            peakEntities = Math.max(peakEntities, world.getEntityCount());
+
+            if (world.isGameOver()) {
+                world.reset();
+                gamesPlayed++;
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d ticks in %.2f s (%.0f ticks/s)%n", ticks, seconds, ticks / seconds);
+        System.out.printf("games played %d, hi score %d, peak entities %d%n", gamesPlayed, world.getState().highScore, peakEntities);
+        System.out.print(profiler.getSummary());
+
+        if (world.getStressTarget() > 0) {
+            System.out.print(profiler.getScalingSummary());
+        }
+
+        if (args.length > 1) {
+            InputRecording recording = world.getRecording();
+            recording.finish(world);
+            recording.write(Path.of(args[1]));
+            System.out.println("Session recorded to " + args[1]);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/*
+Everything needed to play a session back exactly: the world's random seed, stress target, and balance settings, and every
+input change, stamped with the world tick it was applied before, plus game restarts. Sessions are saved in a compact binary file:
+
+    "PZRP" magic, version byte, seed (8 bytes), stress target (varint)
+    balance setting count (varint), each setting in milliseconds (varint, in World.BALANCE_SETTINGS order)
+    event count (varint)
+    per event: ticks since the previous event (varint), one byte (input bit mask, or RESET)
+    final tick (varint), world checksum at the end of the session (8 bytes)
+
+A few minutes of play is usually well under a kilobyte
+ */
+public class InputRecording {
+
+    private static final int MAGIC = 0x505A5250;    // "PZRP"
+    private static final int VERSION = 6;    // Bumped whenever the simulation changes in a way that makes old recordings play out differently
+
+    public static final int RESET = 0x80;   // Event code for a game restart, input masks only use the low 5 bits
+
+    private final long seed;
+    private final int stressTarget;
+    private final long[] balance;
+    private long[] eventTicks = new long[256];
+    private int[] eventCodes = new int[256];
+    private int eventCount = 0;
+
+    // Filled in once the session is over, used by replays to check they ended in the same state
+    private long finalTick = -1;
+    private long finalChecksum = 0;
+
+    // Takes the settings from the world, so recording should start once they're all set
+    public InputRecording(World world) {
+        this(world.getSeed(), world.getStressTarget(), world.getBalance());
+    }
+
+    private InputRecording(long seed, int stressTarget, long[] balance) {
+        this.seed = seed;
+        this.stressTarget = stressTarget;
+        this.balance = balance;
+    }
+
+    // Sets the world up like the recorded one, before the replay starts
+    public void applySettings(World world) {
+        world.setSeed(seed);
+        world.setStressTarget(stressTarget);
+        world.setBalance(balance);
+    }
+
+    public void addInput(long tick, int input) {
+        add(tick, input);
+    }
+
+    public void addReset(long tick) {
+        add(tick, RESET);
+    }
+
+    private void add(long tick, int code) {
+        if (eventCount == eventTicks.length) {
+            eventTicks = Arrays.copyOf(eventTicks, eventCount * 2);
+            eventCodes = Arrays.copyOf(eventCodes, eventCount * 2);
+        }
+
+        eventTicks[eventCount] = tick;
+        eventCodes[eventCount] = code;
+        eventCount++;
+    }
+
+    public void finish(World world) {
+        finalTick = world.getTick();
+        finalChecksum = world.getChecksum();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getStressTarget() {
+        return stressTarget;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public long getEventTick(int i) {
+        return eventTicks[i];
+    }
+
+    public int getEventCode(int i) {
+        return eventCodes[i];
+    }
+
+    public long getFinalTick() {
+        return finalTick;
+    }
+
+    public long getFinalChecksum() {
+        return finalChecksum;
+    }
+
+    public void write(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(seed);
+            writeVarLong(out, stressTarget);
+            writeVarLong(out, balance.length);
+            for (long setting : balance) {
+                writeVarLong(out, setting);
+            }
+            writeVarLong(out, eventCount);
+
+            long previousTick = 0;
+            for (int i = 0; i < eventCount; i++) {
+                writeVarLong(out, eventTicks[i] - previousTick);
+                out.writeByte(eventCodes[i]);
+                previousTick = eventTicks[i];
+            }
+
+            writeVarLong(out, Math.max(0, finalTick));
+            out.writeLong(finalChecksum);
+        }
+    }
+
+    public static InputRecording read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(path + " is not a Pizza Time recording");
+            }
+
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported recording version " + version);
+            }
+
+            long seed = in.readLong();
+            int stressTarget = (int) readVarLong(in);
+            long[] balance = new long[(int) readVarLong(in)];
+            if (balance.length != World.BALANCE_SETTINGS.length) {
+                throw new IOException("Recording has " + balance.length + " balance settings, expected " + World.BALANCE_SETTINGS.length);
+            }
+            for (int i = 0; i < balance.length; i++) {
+                balance[i] = readVarLong(in);
+            }
+
+            InputRecording recording = new InputRecording(seed, stressTarget, balance);
+            long count = readVarLong(in);
+
+            long tick = 0;
+            for (long i = 0; i < count; i++) {
+                tick += readVarLong(in);
+                recording.add(tick, in.readUnsignedByte());
+            }
+
+            recording.finalTick = readVarLong(in);
+            recording.finalChecksum = in.readLong();
+            return recording;
+        }
+    }
+
+    // Variable length encoding, 7 bits per byte, so small tick gaps take a single byte
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+
+        do {
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        return value;
+    }
+}
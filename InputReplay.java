@@ -0,0 +1,37 @@
+// Feeds a recording's events back into a world at the ticks they were recorded on
+public class InputReplay {
+
+    private final InputRecording recording;
+    private int nextEvent = 0;
+
+    public InputReplay(InputRecording recording) {
+        this.recording = recording;
+    }
+
+    /*
+    Applies every event recorded for the world's current tick, call it before each world.tick()
+    Restarts are passed to onReset so the caller can reset its UI along with the world
+     */
+    public void apply(World world, Runnable onReset) {
+        while (nextEvent < recording.getEventCount() && recording.getEventTick(nextEvent) <= world.getTick()) {
+            int code = recording.getEventCode(nextEvent);
+
+            if (code == InputRecording.RESET) {
+                onReset.run();
+            } else {
+                world.setInput(code);
+            }
+
+            nextEvent++;
+        }
+    }
+
+    // True once every event has been applied and the world has reached the tick the recording ended on
+    public boolean isFinished(World world) {
+        return nextEvent >= recording.getEventCount() && world.getTick() >= recording.getFinalTick();
+    }
+
+    public InputRecording getRecording() {
+        return recording;
+    }
+}
@@ -0,0 +1,89 @@
+import java.util.Arrays;
+
+/*
+Fixed-size histogram of nanosecond timings with about 3% precision, recording a value is a few shifts and an array increment
+Values are grouped by their highest set bit, and each of those ranges is split into 32 linear sub-buckets
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int RANGES = 64 - SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[RANGES * SUB_BUCKETS];
+    private long totalCount = 0;
+    private long totalNanos = 0;
+    private long max = 0;
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        counts[indexOf(nanos)]++;
+        totalCount++;
+        totalNanos += nanos;
+        max = Math.max(max, nanos);
+    }
+
+    // Returns the upper edge of the bucket containing the given percentile (0-100)
+    public long getPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(totalCount * percentile / 100.0));
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(max, highestValueIn(i));
+            }
+        }
+
+        return max;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : totalNanos / (double) totalCount;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        totalNanos = 0;
+        max = 0;
+    }
+
+    // Values below 32 get a bucket each, larger values share a bucket with values that have the same 6 highest bits
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int range = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1;
+        int subBucket = (int) (value >>> (range - 1)) - SUB_BUCKETS;
+        return range * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValueIn(int index) {
+        int range = index / SUB_BUCKETS;
+        int subBucket = index % SUB_BUCKETS;
+
+        if (range == 0) {
+            return subBucket;
+        }
+
+        long lowest = ((long) (SUB_BUCKETS | subBucket)) << (range - 1);
+        return lowest + (1L << (range - 1)) - 1;
+    }
+}
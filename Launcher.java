@@ -0,0 +1,12 @@
+import javafx.application.Application;
+
+/*
+Starts the game from a plain class path, e.g. the jar built with mvn -Pcds package
+Java refuses to launch an Application subclass directly unless JavaFX is on the module path, so this class does it instead
+ */
+public class Launcher {
+
+    public static void main(String[] args) {
+        Application.launch(Main.class, args);
+    }
+}
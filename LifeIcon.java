@@ -1,4 +1,3 @@
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 
 // Displays life icons
@@ -6,8 +5,7 @@ public class LifeIcon extends ImageView {
 
     public LifeIcon(double x, double y) {
 
-        Image lifeIconImage = new Image(getClass().getResource("/assets/sprite/pizza.png").toExternalForm());
-        this.setImage(lifeIconImage);
+        AssetManager.applySprite(this, "/assets/sprite/pizza.png");
         this.setPreserveRatio(true);
         this.setFitWidth(50);
 
@@ -1,4 +1,6 @@
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Group;
 import javafx.scene.Scene;
 import javafx.scene.input.KeyCode;
@@ -6,6 +8,14 @@ import javafx.scene.layout.*;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Font;
 import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class Main extends Application {
 
@@ -16,12 +26,19 @@ public class Main extends Application {
     private UIManager uiManager;                    // Controls UI elements
     private GameManager gameManager;                // Controls overall game logic
 
+    private static final int SCORE_TABLE_SIZE = 10;
+    private ScoreStore scoreStore;                  // Saved scores, null if the score log couldn't be opened
+    private SnapshotServer server;                  // Set with --serve, streams the game to viewers
+
     private boolean gameHasStarted = false;
     private boolean gameOver = false;
 
     @Override
     public void start(Stage primaryStage) {
 
+        // Images, sounds, and the font are decoded on background threads while the start screen is shown
+        CompletableFuture<Void> assetsLoaded = AssetManager.preloadAll();
+
         gameState = new GameState();
 
         // Pane which stores objects (player sprite, enemies, power ups, etc.)
@@ -40,22 +57,83 @@ public class Main extends Application {
         Group gameGroup = new Group(gamePane, uiPane);
         StackPane root = new StackPane(gameGroup);
 
-        pixelFont = Font.loadFont(getClass().getResource("/assets/custom_font/arcade_font.TTF").toExternalForm(), 35);
+        pixelFont = AssetManager.getFont();
 
         backgroundManager = new BackgroundManager(gamePane);
+
+        // One ImageView per object by default, --renderer=canvas draws everything onto a single canvas instead
+        String rendererName = getParameters().getNamed().getOrDefault("renderer", "node");
+        Renderer renderer = rendererName.equals("canvas") ? new CanvasRenderer(gamePane) : new NodeRenderer(gamePane);
         uiManager = new UIManager(gamePane, uiPane, gameState, pixelFont);
 
         // Callback function that's executed when the game ends; shows the continue screen
         Runnable showContinueScreenCallback = () -> {
-            uiManager.showContinueScreen();
+            uiManager.showContinueScreen(scoreStore == null ? List.of() : scoreStore.getTopScores());
             gameOver = true;
         };
 
-        gameManager = new GameManager(gamePane, uiPane, uiManager, gameState, showContinueScreenCallback);
+        gameManager = new GameManager(gamePane, uiPane, uiManager, backgroundManager, renderer, gameState, showContinueScreenCallback);
+
+        Map<String, String> named = getParameters().getNamed();
+
+        // --speed=60 runs the game sixty times faster (an hour of play in a minute), --speed=0.5 in slow motion
+        if (named.containsKey("speed")) {
+            gameManager.setTimeScale(Double.parseDouble(named.get("speed")));
+        }
+
+        // Scores are kept in scores.pzs in the working directory, --scores=file keeps them somewhere else
+        try {
+            scoreStore = new ScoreStore(Path.of(named.getOrDefault("scores", "scores.pzs")), SCORE_TABLE_SIZE);
+            gameManager.setScoreStore(scoreStore);
+        } catch (IOException e) {
+            System.err.println("Could not open score log, scores won't be saved: " + e.getMessage());
+        }
+
+        // --seed=N fixes the random seed, --record=file saves the session and --replay=file plays a saved one back
+        if (named.containsKey("seed")) {
+            gameManager.setSeed(Long.parseLong(named.get("seed")));
+        }
+        if (named.containsKey("record")) {
+            gameManager.recordTo(Path.of(named.get("record")));
+        }
+        if (named.containsKey("replay")) {
+            try {
+                gameManager.replay(InputRecording.read(Path.of(named.get("replay"))));
+            } catch (IOException e) {
+                System.err.println("Could not read recording: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+
+        // --serve=7777 streams the game to viewers, which are started with --view=host:7777 and only show it
+        try {
+            if (named.containsKey("serve")) {
+                server = new SnapshotServer(Integer.parseInt(named.get("serve")));
+                gameManager.serve(server);
+            }
+            if (named.containsKey("view")) {
+                gameManager.watch(SnapshotClient.connect(named.get("view")));
+            }
+        } catch (IOException e) {
+            System.err.println("Could not connect: " + e.getMessage());
+            System.exit(1);
+        }
 
-        backgroundManager.startScrolling();
+        gameManager.startLoop();
         uiManager.setupInitialScreen();
 
+        // --stress=5000 plays in stress mode until about that many objects are on screen, see README
+        // A replay keeps the stress target it was recorded with
+        if (named.containsKey("stress") && !gameManager.isReplaying()) {
+            gameManager.setStressTarget(Integer.parseInt(named.get("stress")));
+        }
+
+        // Replays, stress runs, and viewers start straight away, the recording already contains the player's restarts
+        if (gameManager.isReplaying() || gameManager.isStressTesting() || gameManager.isViewing()) {
+            gameHasStarted = true;
+            gameManager.startGame();
+        }
+
         Scene scene = new Scene(root);
         primaryStage.setTitle("Pizza Time");
         primaryStage.setScene(scene);
@@ -64,12 +142,17 @@ public class Main extends Application {
         primaryStage.setHeight(1024);
         primaryStage.setFullScreen(false);
         primaryStage.show();
+        reportStartup(assetsLoaded);
 
         // Handles inputs on start and continue screens
         scene.setOnKeyPressed(e -> {
             KeyCode code = e.getCode();
             gameManager.handleKeyPress(code);
 
+            if ((gameManager.isReplaying() || gameManager.isViewing()) && code != KeyCode.ESCAPE) {
+                return;
+            }
+
             if (!gameHasStarted && e.getCode() == KeyCode.ENTER) {
                 SoundManager.playGameStartSound();
                 gameHasStarted = true;
@@ -83,6 +166,8 @@ public class Main extends Application {
                     gameManager.resetGame();
                     gameOver = false;
                 } else if (e.getCode() == KeyCode.ESCAPE) {
+                    gameManager.saveRecording();
+                    closeScoreStore();
                     System.exit(0);
                 }
             }
@@ -93,6 +178,70 @@ public class Main extends Application {
         });
     }
 
+    /*
+    -Dstartup.timing=true prints how long it took from the JVM starting until the start screen was up and all assets were loaded,
+    and how well the sprite pools were reused once the game closes
+    -Dcds.training=true plays a few seconds of a game once everything is loaded and then quits, used to build the
+    class data sharing archive (mvn -Pcds package)
+     */
+    private void reportStartup(CompletableFuture<Void> assetsLoaded) {
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+        if (Boolean.getBoolean("startup.timing")) {
+            Platform.runLater(() -> System.out.println("Start screen up after " + (System.currentTimeMillis() - jvmStart) + " ms"));
+        }
+
+        assetsLoaded.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                System.err.println("Could not preload assets: " + error.getMessage());
+            }
+
+            if (Boolean.getBoolean("startup.timing")) {
+                System.out.println("Assets loaded after " + (System.currentTimeMillis() - jvmStart) + " ms (" + AssetManager.getStats() + ")");
+            }
+
+            if (Boolean.getBoolean("cds.training")) {
+                gameHasStarted = true;
+                gameManager.startGame();
+
+                PauseTransition quit = new PauseTransition(Duration.seconds(3));
+                quit.setOnFinished(e -> Platform.exit());
+                quit.play();
+            }
+        }));
+    }
+
+    // Called when the window is closed
+    @Override
+    public void stop() {
+        gameManager.saveRecording();
+        closeScoreStore();
+
+        if (Boolean.getBoolean("startup.timing")) {
+            System.out.println("Sprite pools:\n" + EntityPools.getStats());
+        }
+
+        if (server != null) {
+            System.out.println("Snapshot server: " + server.getStats());
+            server.close();
+        }
+
+        if (gameManager.isStressTesting()) {
+            System.out.print(gameManager.getWorld().getProfiler().getScalingSummary());
+        }
+    }
+
+    // Prints the best scores, then waits for the last scores to be written
+    private void closeScoreStore() {
+        if (scoreStore != null) {
+            if (!scoreStore.getTopScores().isEmpty()) {
+                System.out.print("Best scores:\n" + scoreStore.getSummary());
+            }
+            scoreStore.close();
+            scoreStore = null;
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
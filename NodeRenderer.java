@@ -0,0 +1,111 @@
+import javafx.scene.layout.Pane;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+// Draws the world on the game pane with one ImageView per object, reading positions from the world after every tick
+public class NodeRenderer implements Renderer {
+
+    private final Pane gamePane;
+    private final List<EntityView> views = new ArrayList<>();
+    private final Set<EntityView> removedViews = Collections.newSetFromMap(new IdentityHashMap<>());   // Reused every frame
+
+    private final PizzaSprite pizzaMain;    // Player sprite
+    private final PizzaSprite leftClone;    // Clones of player sprite, shown while the pepper power up is active
+    private final PizzaSprite rightClone;
+
+    public NodeRenderer(Pane gamePane) {
+        this.gamePane = gamePane;
+
+        pizzaMain = new PizzaSprite((384 - (75 / 2.0)), 800);
+        leftClone = new PizzaSprite(0, 0);
+        rightClone = new PizzaSprite(0, 0);
+    }
+
+    // Adds the player sprite once the game starts
+    @Override
+    public void showPlayer() {
+        if (!gamePane.getChildren().contains(pizzaMain)) {
+            gamePane.getChildren().add(pizzaMain);
+        }
+        pizzaMain.setVisible(true);
+    }
+
+    @Override
+    public void render(World world) {
+
+        // Removes sprites whose entity has been destroyed or has left the screen
+        for (int i = views.size() - 1; i >= 0; i--) {
+            EntityView view = views.get(i);
+
+            if (!view.isBound()) {
+                views.set(i, views.get(views.size() - 1));
+                views.remove(views.size() - 1);
+                removedViews.add(view);
+            }
+        }
+
+        // Removed in one pass with a single change event, removing them one by one searches the whole pane for each
+        if (!removedViews.isEmpty()) {
+            gamePane.getChildren().removeAll(removedViews);
+            removedViews.clear();
+        }
+
+        renderEntities(world.getPlayerProjectiles());
+        renderEntities(world.getEnemyProjectiles());
+        renderEntities(world.getEnemies());
+        renderEntities(world.getPowerUps());
+        renderEntities(world.getExplosions());
+
+        Entity player = world.getPlayer();
+        pizzaMain.setX(player.x);
+        pizzaMain.setY(player.y);
+        pizzaMain.setVisible(player.alive);
+
+        renderClones(world);
+    }
+
+    private void renderEntities(List<Entity> entities) {
+        for (Entity entity : entities) {
+            if (!entity.alive) {
+                continue;
+            }
+
+            if (!(entity.view instanceof EntityView existing && existing.isBoundTo(entity))) {
+                EntityView view = EntityPools.acquire(entity.type);
+                view.bind(entity);
+                views.add(view);
+                gamePane.getChildren().add(view);
+            } else {
+                existing.sync();
+            }
+        }
+    }
+
+    // Clones follow the player sprite at the same offsets used for firing
+    private void renderClones(World world) {
+        boolean showClones = world.isPepperShotActive() && world.getPlayer().alive;
+
+        if (showClones && leftClone.getParent() == null) {
+            gamePane.getChildren().addAll(leftClone, rightClone);
+        } else if (!showClones && leftClone.getParent() != null) {
+            gamePane.getChildren().removeAll(leftClone, rightClone);
+        }
+
+        if (showClones) {
+            Entity player = world.getPlayer();
+            leftClone.setX(player.x - 80);
+            leftClone.setY(player.y);
+            rightClone.setX(player.x + 80);
+            rightClone.setY(player.y);
+        }
+    }
+
+    @Override
+    public void flashPlayer() {
+        pizzaMain.flash();
+    }
+}
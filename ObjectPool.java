@@ -0,0 +1,74 @@
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Recycles short-lived objects (projectiles, enemies, explosions) instead of allocating new ones every time
+public class ObjectPool<T> {
+
+    private final ArrayDeque<T> freeObjects;
+    private final int capacity;             // Maximum number of idle objects kept around for reuse
+    private final Supplier<T> factory;      // Creates a new object when the pool is empty
+    private final Consumer<T> reset;        // Puts an object back into its default state before it's handed out
+
+    private long hits = 0;          // Objects handed out from the pool
+    private long allocations = 0;   // Objects which had to be created because the pool was empty
+    private long discarded = 0;     // Objects released while the pool was already full
+
+    public ObjectPool(int capacity, Supplier<T> factory, Consumer<T> reset) {
+        this.capacity = capacity;
+        this.factory = factory;
+        this.reset = reset;
+        this.freeObjects = new ArrayDeque<>(capacity);
+    }
+
+    public T acquire() {
+        T object = freeObjects.poll();
+
+        if (object == null) {
+            object = factory.get();
+            allocations++;
+        } else {
+            hits++;
+        }
+
+        reset.accept(object);
+        return object;
+    }
+
+    public void release(T object) {
+        if (freeObjects.size() < capacity) {
+            freeObjects.push(object);
+        } else {
+            discarded++;
+        }
+    }
+
+    public void clear() {
+        freeObjects.clear();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getFreeCount() {
+        return freeObjects.size();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getAllocations() {
+        return allocations;
+    }
+
+    public long getDiscarded() {
+        return discarded;
+    }
+
+    @Override
+    public String toString() {
+        return "hits " + hits + " allocations " + allocations + " discarded " + discarded + " free " + freeObjects.size() + "/" + capacity;
+    }
+}
@@ -0,0 +1,78 @@
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Shows the frame profiler's p50/p99/max timings for each phase on top of the game
+public class PerfOverlay {
+
+    private static final long REFRESH_NANOS = 500_000_000L;    // The text is only rebuilt twice a second to keep the overlay cheap
+
+    private final Pane uiPane;
+    private final FrameProfiler profiler;
+    private final Rectangle background;
+    private final Text text;
+    private long lastRefresh = 0;
+
+    public PerfOverlay(Pane uiPane, FrameProfiler profiler) {
+        this.uiPane = uiPane;
+        this.profiler = profiler;
+
+        background = new Rectangle(420, 400, Color.color(0, 0, 0, 0.6));
+        background.setX(330);
+        background.setY(20);
+
+        text = new Text();
+        text.setFont(Font.font("Monospaced", 14));
+        text.setFill(Color.LIME);
+        text.setX(340);
+        text.setY(40);
+    }
+
+    public void toggle() {
+        if (isVisible()) {
+            uiPane.getChildren().removeAll(background, text);
+        } else {
+            uiPane.getChildren().addAll(background, text);
+            lastRefresh = 0;
+            update();
+        }
+    }
+
+    public boolean isVisible() {
+        return text.getParent() != null;
+    }
+
+    public void update() {
+        if (!isVisible()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (now - lastRefresh < REFRESH_NANOS) {
+            return;
+        }
+        lastRefresh = now;
+
+        text.setText(profiler.getSummary() + "\n" + SoundManager.getStats() + "\nF4: save to csv");
+    }
+
+    // Saves the histograms to perf-<date>.csv in the working directory
+    public void writeCsv() {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path path = Path.of("perf-" + timestamp + ".csv");
+
+        try {
+            profiler.writeCsv(path);
+            System.out.println("Frame timings written to " + path.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Could not write frame timings: " + e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,4 @@
 import javafx.animation.FadeTransition;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.util.Duration;
 
@@ -8,8 +7,7 @@ public class PizzaSprite extends ImageView {
 
     public PizzaSprite(double x, double y) {
 
-        Image pizzaSpriteImage = new Image(getClass().getResource("/assets/sprite/pizza.png").toExternalForm());
-        this.setImage(pizzaSpriteImage);
+        AssetManager.applySprite(this, "/assets/sprite/pizza.png");
         this.setPreserveRatio(true);
         this.setFitWidth(75);
         this.setX(x);
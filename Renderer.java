@@ -0,0 +1,11 @@
+// Draws the world, GameManager calls render() once per frame after running the frame's ticks
+public interface Renderer {
+
+    // Shows the player sprite once the game starts
+    void showPlayer();
+
+    void render(World world);
+
+    // Flash animation played when the player is hit or picks up a power up
+    void flashPlayer();
+}
@@ -0,0 +1,46 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+/*
+Replays a recorded session without a window as fast as the CPU allows
+Checks that the replay ends in exactly the same state as the recorded session, and reports how long it took,
+so the same session can be used to compare performance between builds
+Usage: java ReplayRunner <recording> [runs]
+ */
+public class ReplayRunner {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java ReplayRunner <recording> [runs]");
+            System.exit(1);
+        }
+
+        InputRecording recording = InputRecording.read(Path.of(args[0]));
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        System.out.printf("seed %d, %d events, %d ticks%s%n", recording.getSeed(), recording.getEventCount(), recording.getFinalTick(),
+                recording.getStressTarget() > 0 ? ", stress target " + recording.getStressTarget() : "");
+
+        for (int run = 1; run <= runs; run++) {
+            World world = new World(new GameState(), recording.getSeed());
+            recording.applySettings(world);
+            InputReplay replay = new InputReplay(recording);
+
+            long start = System.nanoTime();
+            while (!replay.isFinished(world)) {
+                replay.apply(world, world::reset);
+                world.tick();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            boolean matches = world.getChecksum() == recording.getFinalChecksum();
+            System.out.printf("run %d: %.3f s (%.0f ticks/s), score %d, hi score %d, final state %s%n",
+                    run, seconds, world.getTick() / seconds, world.getState().score, world.getState().highScore,
+                    matches ? "matches" : "DOES NOT MATCH");
+
+            if (!matches) {
+                System.exit(2);
+            }
+        }
+    }
+}
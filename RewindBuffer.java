@@ -0,0 +1,275 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/*
+Keeps the world's state for every recent tick so the game can be rewound or the last few seconds shown again (the kill cam)
+Every KEYFRAME_INTERVAL ticks the whole state is kept (a keyframe), the ticks in between only keep the bytes which differ from
+that keyframe, stored as runs of "keep n bytes, then replace the next m bytes with these"
+Frames live back to back in one direct buffer of fixed size, so the memory used never grows past the budget and the
+garbage collector never has to scan it. Once it's full, the oldest frames are dropped to make room
+Restoring a tick copies its keyframe, applies the tick's changes, and loads the result into the world (see World.readState())
+ */
+public class RewindBuffer {
+
+    public static final int KEYFRAME_INTERVAL = 30;
+    private static final int MAX_FRAMES = 60 * World.TICKS_PER_SECOND * 10;     // Ten minutes of ticks
+    private static final double MEGABYTE = 1024 * 1024;
+    private static final int MIN_MATCH = 8;     // Shorter runs of equal bytes are copied along with the changes around them
+
+    private final ByteBuffer frames;
+    private final int capacity;
+
+    // Frames by sequence number, index (sequence % MAX_FRAMES)
+    private final long[] frameTicks = new long[MAX_FRAMES];
+    private final int[] frameOffsets = new int[MAX_FRAMES];
+    private final int[] frameLengths = new int[MAX_FRAMES];
+    private final int[] stateLengths = new int[MAX_FRAMES];
+    private final boolean[] keyframes = new boolean[MAX_FRAMES];
+    private long oldest = 0;        // Sequence number of the oldest frame kept
+    private long next = 0;          // Sequence number the next frame gets
+    private int writePosition = 0;
+
+    // The state of the newest keyframe, which the frames after it are compared against
+    private long keyframeSequence = -1;
+    private byte[] keyframe = new byte[0];
+    private int keyframeLength = 0;
+
+    // Scratch space, reused every tick
+    private ByteBuffer state = ByteBuffer.allocate(4096);
+    private byte[] delta = new byte[4096];
+    private byte[] restored = new byte[4096];
+
+    private long framesDropped = 0;
+
+    public RewindBuffer(int budgetBytes) {
+        capacity = budgetBytes;
+        frames = ByteBuffer.allocateDirect(budgetBytes);
+    }
+
+    // Saves the world as it is after the tick it just ran, ticks have to be recorded one after another
+    public void record(World world) {
+        int maxSize = world.getMaxStateSize();
+        if (state.capacity() < maxSize) {
+            state = ByteBuffer.allocate(maxSize * 2);
+        }
+        state.clear();
+        world.writeState(state);
+        int length = state.position();
+        byte[] bytes = state.array();
+
+        // A state this big would leave room for hardly any others, so there's nothing useful to keep
+        if (length > capacity / 4 || (!isEmpty() && world.getTick() != getNewestTick() + 1)) {
+            clear();
+            if (length > capacity / 4) {
+                return;
+            }
+        }
+
+        boolean isKeyframe = keyframeSequence < oldest || next - keyframeSequence >= KEYFRAME_INTERVAL;
+        int frameLength = isKeyframe ? length : encodeDelta(bytes, length);
+
+        makeRoom(frameLength);
+
+        // Making room might have dropped the keyframe this frame was compared against
+        if (!isKeyframe && keyframeSequence < oldest) {
+            isKeyframe = true;
+            frameLength = length;
+            makeRoom(frameLength);
+        }
+
+        frames.put(writePosition, isKeyframe ? bytes : delta, 0, frameLength);
+
+        int index = (int) (next % MAX_FRAMES);
+        frameTicks[index] = world.getTick();
+        frameOffsets[index] = writePosition;
+        frameLengths[index] = frameLength;
+        stateLengths[index] = length;
+        keyframes[index] = isKeyframe;
+        writePosition += frameLength;
+
+        if (isKeyframe) {
+            if (keyframe.length < length) {
+                keyframe = new byte[length * 2];
+            }
+            System.arraycopy(bytes, 0, keyframe, 0, length);
+            keyframeLength = length;
+            keyframeSequence = next;
+        }
+
+        next++;
+    }
+
+    // Loads the world's state at the given tick, returns false if that tick isn't kept
+    public boolean restore(World world, long tick) {
+        if (isEmpty() || tick < getOldestTick() || tick > getNewestTick()) {
+            return false;
+        }
+
+        long sequence = oldest + (tick - getOldestTick());
+        int index = (int) (sequence % MAX_FRAMES);
+        int length = stateLengths[index];
+
+        // Frames after a keyframe are always compared against it, so the keyframe is the newest one at or before this frame
+        long keySequence = sequence;
+        while (!keyframes[(int) (keySequence % MAX_FRAMES)]) {
+            keySequence--;
+        }
+        int keyIndex = (int) (keySequence % MAX_FRAMES);
+
+        int size = Math.max(length, stateLengths[keyIndex]);
+        if (restored.length < size) {
+            restored = new byte[size * 2];
+        }
+        frames.get(frameOffsets[keyIndex], restored, 0, frameLengths[keyIndex]);
+
+        if (keySequence != sequence) {
+            applyDelta(frameOffsets[index], frameLengths[index]);
+        }
+
+        world.readState(ByteBuffer.wrap(restored, 0, length));
+        return true;
+    }
+
+    // Forgets every tick after the given one, e.g. once the player carries on playing from a rewound point
+    public void truncateAfter(long tick) {
+        if (isEmpty() || tick >= getNewestTick()) {
+            return;
+        }
+        if (tick < getOldestTick()) {
+            clear();
+            return;
+        }
+
+        next = oldest + (tick - getOldestTick()) + 1;
+        int last = (int) ((next - 1) % MAX_FRAMES);
+        writePosition = frameOffsets[last] + frameLengths[last];
+        keyframeSequence = -1;      // The next frame starts a new keyframe, rather than finding the old one again
+    }
+
+    public void clear() {
+        oldest = 0;
+        next = 0;
+        writePosition = 0;
+        keyframeSequence = -1;
+    }
+
+    public boolean isEmpty() {
+        return next == oldest;
+    }
+
+    public long getOldestTick() {
+        return frameTicks[(int) (oldest % MAX_FRAMES)];
+    }
+
+    public long getNewestTick() {
+        return frameTicks[(int) ((next - 1) % MAX_FRAMES)];
+    }
+
+    public int getFrameCount() {
+        return (int) (next - oldest);
+    }
+
+    // Bytes taken up by the frames kept, out of the budget
+    public long getBytesUsed() {
+        long used = 0;
+        for (long sequence = oldest; sequence < next; sequence++) {
+            used += frameLengths[(int) (sequence % MAX_FRAMES)];
+        }
+        return used;
+    }
+
+    public String getStats() {
+        return String.format("%d ticks (%.1f s) in %.1f of %.0f MB, %d dropped", getFrameCount(),
+                getFrameCount() / (double) World.TICKS_PER_SECOND, getBytesUsed() / MEGABYTE, capacity / MEGABYTE, framesDropped);
+    }
+
+    /*
+    Writes the changes from the keyframe into the delta scratch array and returns their length: pairs of
+    (bytes kept from the keyframe, bytes replaced) as 4 byte ints, each followed by the replacement bytes
+     */
+    private int encodeDelta(byte[] bytes, int length) {
+        int maxSize = 4 + length + 8 * (length / MIN_MATCH + 2);
+        if (delta.length < maxSize) {
+            delta = new byte[maxSize * 2];
+        }
+
+        ByteBuffer out = ByteBuffer.wrap(delta);
+        int shared = Math.min(length, keyframeLength);
+        int position = 0;
+
+        while (position < length) {
+            int mismatch = position < shared ? Arrays.mismatch(bytes, position, shared, keyframe, position, shared) : 0;
+            int runStart = mismatch < 0 ? shared : position + mismatch;
+            if (runStart >= length) {
+                break;
+            }
+
+            // The changed run lasts until MIN_MATCH bytes in a row are the same again, or the keyframe runs out
+            int runEnd = runStart + 1;
+            int equal = 0;
+            while (runEnd < length && equal < MIN_MATCH) {
+                equal = (runEnd < shared && bytes[runEnd] == keyframe[runEnd]) ? equal + 1 : 0;
+                runEnd++;
+            }
+            if (equal == MIN_MATCH) {
+                runEnd -= MIN_MATCH;
+            }
+
+            out.putInt(runStart - position);
+            out.putInt(runEnd - runStart);
+            out.put(bytes, runStart, runEnd - runStart);
+            position = runEnd;
+        }
+
+        return out.position();
+    }
+
+    // Applies a delta frame to the keyframe copied into the restored scratch array
+    private void applyDelta(int offset, int length) {
+        int end = offset + length;
+        int position = 0;
+
+        while (offset < end) {
+            position += frames.getInt(offset);
+            int changed = frames.getInt(offset + 4);
+            frames.get(offset + 8, restored, position, changed);
+            position += changed;
+            offset += 8 + changed;
+        }
+    }
+
+    // Drops the oldest frames until the given number of bytes fit at the write position, wrapping round to the start if needed
+    private void makeRoom(int length) {
+        if (next - oldest == MAX_FRAMES) {
+            dropOldest();
+        }
+
+        while (true) {
+            if (isEmpty()) {
+                writePosition = 0;
+                return;
+            }
+
+            int tail = frameOffsets[(int) (oldest % MAX_FRAMES)];
+            if (tail < writePosition) {
+                // The frames kept sit between tail and the write position, free space is after them and before tail
+                if (writePosition + length <= capacity) {
+                    return;
+                }
+                writePosition = 0;
+            } else if (writePosition + length <= tail) {
+                return;
+            } else {
+                dropOldest();
+            }
+        }
+    }
+
+    // A frame after a dropped keyframe can't be restored any more, so those are dropped along with it
+    private void dropOldest() {
+        do {
+            oldest++;
+            framesDropped++;
+        } while (!isEmpty() && !keyframes[(int) (oldest % MAX_FRAMES)]);
+    }
+}
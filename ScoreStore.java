@@ -0,0 +1,250 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/*
+Keeps every finished game's score on disk so the high score and leaderboard survive restarts
+The file is an append-only log of fixed size records, each with its own CRC32:
+
+    "PZSC" magic, version byte, then per game:
+    score (4 bytes), end time (8 bytes, ms since 1970), length (8 bytes, ticks), seed (8 bytes), CRC32 of the 28 bytes before it (4 bytes)
+
+Records are written and forced to disk by a background thread, so recording a score never blocks the game loop
+A crash can only ever cut off the record being written, which fails its CRC and is trimmed when the file is next opened
+A record damaged anywhere else is skipped, the records are fixed size so the ones after it are still read
+Logs bigger than MAP_THRESHOLD are memory-mapped when they're loaded rather than read into the heap
+ */
+public class ScoreStore implements AutoCloseable {
+
+    public record Entry(int score, long endedAtMillis, long ticks, long seed) {}
+
+    private static final int MAGIC = 0x505A5343;    // "PZSC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 5;
+    private static final int RECORD_BYTES = 32;
+    private static final long MAP_THRESHOLD = 64 * 1024;
+
+    private static final Entry STOP = new Entry(0, 0, 0, 0);     // Tells the writer thread to finish
+
+    private final Path path;
+    private final int topCount;
+    private final List<Entry> topScores = new ArrayList<>();    // Best first, only touched while holding this store's lock
+    private int gamesRecorded = 0;
+
+    private final BlockingQueue<Entry> pending = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final FileChannel channel;
+
+    // Loads the top scores from the log at the given path, creating it if there isn't one, and starts the writer
+    public ScoreStore(Path path, int topCount) throws IOException {
+        this.path = path;
+        this.topCount = topCount;
+
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        load();
+
+        writer = new Thread(this::writeLoop, "score-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Adds a finished game to the leaderboard straight away and queues it to be written, never waits for the disk
+    public synchronized void record(Entry entry) {
+        addToTop(entry);
+        gamesRecorded++;
+        pending.add(entry);
+    }
+
+    public synchronized List<Entry> getTopScores() {
+        return List.copyOf(topScores);
+    }
+
+    public synchronized int getHighScore() {
+        return topScores.isEmpty() ? 0 : topScores.get(0).score();
+    }
+
+    public synchronized int getGamesRecorded() {
+        return gamesRecorded;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    // Waits (up to a few seconds) for every queued score to reach the disk, then closes the log
+    @Override
+    public void close() {
+        pending.add(STOP);
+
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Could not close score log: " + e.getMessage());
+        }
+    }
+
+    // Cuts off a torn record at the end so new records line up again, then reads every intact record
+    private void load() throws IOException {
+        long size = channel.size();
+
+        if (size < HEADER_BYTES) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).put((byte) VERSION).flip();
+            channel.truncate(0);
+            channel.write(header, 0);
+            channel.force(true);
+            channel.position(HEADER_BYTES);
+            return;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(header, 0);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a Pizza Time score log");
+        }
+        int version = header.get(4) & 0xFF;
+        if (version != VERSION) {
+            throw new IOException("Unsupported score log version " + version);
+        }
+
+        // A partial record and any damaged ones left at the end are trimmed before the log is mapped, so it never maps bytes that get cut off
+        CRC32 crc = new CRC32();
+        long validEnd = size - (size - HEADER_BYTES) % RECORD_BYTES;
+        ByteBuffer last = ByteBuffer.allocate(RECORD_BYTES);
+        while (validEnd > HEADER_BYTES) {
+            readFully(last, validEnd - RECORD_BYTES);
+            if (isIntact(last, crc)) {
+                break;
+            }
+            validEnd -= RECORD_BYTES;
+        }
+
+        if (validEnd < size) {
+            System.err.println("Dropped " + (size - validEnd) + " damaged bytes from the end of " + path);
+            channel.truncate(validEnd);
+        }
+        channel.position(validEnd);
+
+        ByteBuffer buffer;
+        if (validEnd > MAP_THRESHOLD) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, validEnd);
+        } else {
+            buffer = ByteBuffer.allocate((int) validEnd);
+            readFully(buffer, 0);
+        }
+
+        int skipped = 0;
+        for (int start = HEADER_BYTES; start < validEnd; start += RECORD_BYTES) {
+            ByteBuffer record = buffer.slice(start, RECORD_BYTES);
+            if (!isIntact(record, crc)) {
+                skipped++;
+                continue;
+            }
+
+            addToTop(new Entry(record.getInt(0), record.getLong(4), record.getLong(12), record.getLong(20)));
+            gamesRecorded++;
+        }
+
+        if (skipped > 0) {
+            System.err.println("Skipped " + skipped + " damaged scores in " + path);
+        }
+    }
+
+    // Checks a record's CRC, the record is the RECORD_BYTES from index 0 of the buffer
+    private static boolean isIntact(ByteBuffer record, CRC32 crc) {
+        crc.reset();
+        crc.update(record.duplicate().position(0).limit(RECORD_BYTES - 4));
+        return (int) crc.getValue() == record.getInt(RECORD_BYTES - 4);
+    }
+
+    // Fills the buffer from the given file position, from its start
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException(path + " ended early");
+            }
+        }
+    }
+
+    private void addToTop(Entry entry) {
+        if (topScores.size() == topCount && entry.score() <= topScores.get(topCount - 1).score()) {
+            return;
+        }
+
+        // Earlier games stay ahead of later ones with the same score
+        int index = 0;
+        while (index < topScores.size() && topScores.get(index).score() >= entry.score()) {
+            index++;
+        }
+        topScores.add(index, entry);
+
+        if (topScores.size() > topCount) {
+            topScores.remove(topScores.size() - 1);
+        }
+    }
+
+    // Runs on the writer thread, each record is forced to disk before the next one is taken
+    private void writeLoop() {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        CRC32 crc = new CRC32();
+
+        while (true) {
+            Entry entry;
+            try {
+                entry = pending.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            if (entry == STOP) {
+                return;
+            }
+
+            record.clear();
+            record.putInt(entry.score()).putLong(entry.endedAtMillis()).putLong(entry.ticks()).putLong(entry.seed());
+            crc.reset();
+            crc.update(record.array(), 0, RECORD_BYTES - 4);
+            record.putInt((int) crc.getValue());
+            record.flip();
+
+            try {
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                System.err.println("Could not write score: " + e.getMessage());
+            }
+        }
+    }
+
+    // Best scores, for printing e.g. at the end of a session
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        List<Entry> top = getTopScores();
+
+        for (int i = 0; i < top.size(); i++) {
+            Entry entry = top.get(i);
+            summary.append(String.format("%2d. %6d  %s  %5.0f s  seed %d%n", i + 1, entry.score(),
+                    Instant.ofEpochMilli(entry.endedAtMillis()), entry.ticks() / (double) World.TICKS_PER_SECOND, entry.seed()));
+        }
+
+        return summary.toString();
+    }
+}
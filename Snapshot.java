@@ -0,0 +1,357 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/*
+What a viewer needs to draw one tick of the world: life and score, the player, and every entity's id, type, and position
+Positions are stored in quarter pixels, entities are kept sorted by id so two snapshots can be compared in one pass
+
+Snapshots are sent delta compressed against an older snapshot the viewer already has (the baseline):
+
+    sequence, baseline sequence (0 for none), tick, score, high score, life (varints), flags (1 byte),
+    player x, y (zigzag varints)
+    removed entity count, then each removed id as the gap from the previous one (varints)
+    changed entity count, then per entity: gap from the previous id (varint), and either
+        NEW_ENTITY, type (1 byte), x, y (zigzag varints)          for entities the baseline doesn't have
+        MOVED_ENTITY, dx, dy from the baseline (zigzag varints)     for ones which moved
+Entities which haven't moved since the baseline aren't sent at all
+ */
+public class Snapshot {
+
+    private static final double QUANTUM = 4;    // Steps per pixel
+
+    private static final int NEW_ENTITY = 1;
+    private static final int MOVED_ENTITY = 2;
+
+    // Bits of the flags byte
+    private static final int PLAYER_ALIVE = 1;
+    private static final int PEPPER_SHOT = 2;
+    private static final int GAME_OVER = 4;
+
+    private static final EntityType[] TYPES = EntityType.values();
+
+    private final long sequence;
+    private long tick;
+    private int score;
+    private int highScore;
+    private int life;
+    private int flags;
+    private int playerX;
+    private int playerY;
+
+    private int count;
+    private long[] ids;
+    private byte[] types;
+    private int[] xs;
+    private int[] ys;
+
+    private Snapshot(long sequence, int capacity) {
+        this.sequence = sequence;
+        ids = new long[capacity];
+        types = new byte[capacity];
+        xs = new int[capacity];
+        ys = new int[capacity];
+    }
+
+    // Copies the parts of the world a viewer draws
+    public static Snapshot capture(World world, long sequence) {
+        GameState state = world.getState();
+        Entity player = world.getPlayer();
+
+        Snapshot snapshot = new Snapshot(sequence, world.getEntityCount());
+        snapshot.tick = world.getTick();
+        snapshot.score = state.score;
+        snapshot.highScore = state.highScore;
+        snapshot.life = state.life;
+        snapshot.flags = (player.alive ? PLAYER_ALIVE : 0) | (world.isPepperShotActive() ? PEPPER_SHOT : 0) | (world.isGameOver() ? GAME_OVER : 0);
+        snapshot.playerX = quantize(player.x);
+        snapshot.playerY = quantize(player.y);
+
+        // Sorted by id through one primitive sort, with each entity's position in the list packed into the low bits
+        Entity[] entities = new Entity[snapshot.ids.length];
+        long[] keys = new long[snapshot.ids.length];
+        int count = 0;
+        for (EntityType type : new EntityType[] {EntityType.ENEMY, EntityType.ENEMY_PROJECTILE, EntityType.PLAYER_PROJECTILE, EntityType.SALT, EntityType.EXPLOSION}) {
+            for (Entity entity : world.getRegistry(type)) {
+                if (entity.alive) {
+                    entities[count] = entity;
+                    keys[count] = (entity.id << 20) | count;
+                    count++;
+                }
+            }
+        }
+        Arrays.sort(keys, 0, count);
+
+        for (int i = 0; i < count; i++) {
+            Entity entity = entities[(int) (keys[i] & 0xFFFFF)];
+            snapshot.ids[i] = entity.id;
+            snapshot.types[i] = (byte) entity.type.ordinal();
+            snapshot.xs[i] = quantize(entity.x);
+            snapshot.ys[i] = quantize(entity.y);
+        }
+        snapshot.count = count;
+
+        return snapshot;
+    }
+
+    // Writes this snapshot as changes from the baseline, or in full when the baseline is null
+    public void encode(Snapshot baseline, ByteBuffer out) {
+        writeVarLong(out, sequence);
+        writeVarLong(out, baseline == null ? 0 : baseline.sequence);
+        writeVarLong(out, tick);
+        writeVarLong(out, score);
+        writeVarLong(out, highScore);
+        writeVarLong(out, Math.max(0, life));
+        out.put((byte) flags);
+        writeSigned(out, playerX);
+        writeSigned(out, playerY);
+
+        int baseCount = baseline == null ? 0 : baseline.count;
+
+        // Ids in the baseline which are gone now, both lists are sorted so one merge pass finds them
+        int removed = 0;
+        for (int i = 0, j = 0; i < baseCount; i++) {
+            while (j < count && ids[j] < baseline.ids[i]) j++;
+            if (j == count || ids[j] != baseline.ids[i]) removed++;
+        }
+        writeVarLong(out, removed);
+        long previousId = 0;
+        for (int i = 0, j = 0; i < baseCount; i++) {
+            while (j < count && ids[j] < baseline.ids[i]) j++;
+            if (j == count || ids[j] != baseline.ids[i]) {
+                writeVarLong(out, baseline.ids[i] - previousId);
+                previousId = baseline.ids[i];
+            }
+        }
+
+        // The count of changed entities is only known after the pass, so it's written into a fixed size varint afterwards
+        int countPosition = out.position();
+        out.position(countPosition + 5);
+        int changed = 0;
+        previousId = 0;
+        for (int i = 0, j = 0; i < count; i++) {
+            while (j < baseCount && baseline.ids[j] < ids[i]) j++;
+            boolean known = j < baseCount && baseline.ids[j] == ids[i];
+
+            if (known && baseline.xs[j] == xs[i] && baseline.ys[j] == ys[i]) {
+                continue;
+            }
+
+            writeVarLong(out, ids[i] - previousId);
+            previousId = ids[i];
+            changed++;
+
+            if (known) {
+                out.put((byte) MOVED_ENTITY);
+                writeSigned(out, xs[i] - baseline.xs[j]);
+                writeSigned(out, ys[i] - baseline.ys[j]);
+            } else {
+                out.put((byte) NEW_ENTITY);
+                out.put(types[i]);
+                writeSigned(out, xs[i]);
+                writeSigned(out, ys[i]);
+            }
+        }
+        writePaddedVarInt(out, countPosition, changed);
+    }
+
+    // Sequence of the baseline an encoded snapshot needs, without reading the rest of it
+    public static long peekBaseline(ByteBuffer in) {
+        ByteBuffer copy = in.duplicate();
+        readVarLong(copy);
+        return readVarLong(copy);
+    }
+
+    // Reads a snapshot written by encode(), the baseline must be the snapshot it was encoded against (null for none)
+    public static Snapshot decode(ByteBuffer in, Snapshot baseline) {
+        long sequence = readVarLong(in);
+        long baselineSequence = readVarLong(in);
+        if (baselineSequence != (baseline == null ? 0 : baseline.sequence)) {
+            throw new IllegalArgumentException("Snapshot " + sequence + " needs baseline " + baselineSequence);
+        }
+
+        int baseCount = baseline == null ? 0 : baseline.count;
+        Snapshot snapshot = new Snapshot(sequence, 0);
+        snapshot.tick = readVarLong(in);
+        snapshot.score = (int) readVarLong(in);
+        snapshot.highScore = (int) readVarLong(in);
+        snapshot.life = (int) readVarLong(in);
+        snapshot.flags = in.get();
+        snapshot.playerX = readSigned(in);
+        snapshot.playerY = readSigned(in);
+
+        int removedCount = (int) readVarLong(in);
+        long[] removed = new long[removedCount];
+        long id = 0;
+        for (int i = 0; i < removedCount; i++) {
+            id += readVarLong(in);
+            removed[i] = id;
+        }
+
+        int changedCount = (int) readVarLong(in);
+        int capacity = baseCount - removedCount + changedCount;
+        snapshot.ids = new long[capacity];
+        snapshot.types = new byte[capacity];
+        snapshot.xs = new int[capacity];
+        snapshot.ys = new int[capacity];
+
+        // Merges the baseline's entities (minus the removed ones) with the changed ones, all three lists are sorted by id
+        int base = 0;
+        int gone = 0;
+        int count = 0;
+        id = 0;
+        for (int c = 0; c <= changedCount; c++) {
+            long changedId = Long.MAX_VALUE;
+            int kind = 0;
+            if (c < changedCount) {
+                id += readVarLong(in);
+                changedId = id;
+                kind = in.get();
+            }
+
+            // Baseline entities before this one are unchanged, unless they were removed
+            while (base < baseCount && baseline.ids[base] < changedId) {
+                if (gone < removedCount && removed[gone] == baseline.ids[base]) {
+                    gone++;
+                } else {
+                    snapshot.copyFrom(count++, baseline, base);
+                }
+                base++;
+            }
+
+            if (c == changedCount) {
+                break;
+            }
+
+            if (kind == MOVED_ENTITY) {
+                snapshot.copyFrom(count, baseline, base++);
+                snapshot.xs[count] += readSigned(in);
+                snapshot.ys[count] += readSigned(in);
+            } else {
+                snapshot.ids[count] = changedId;
+                snapshot.types[count] = in.get();
+                snapshot.xs[count] = readSigned(in);
+                snapshot.ys[count] = readSigned(in);
+            }
+            count++;
+        }
+        snapshot.count = count;
+
+        return snapshot;
+    }
+
+    private void copyFrom(int index, Snapshot other, int otherIndex) {
+        ids[index] = other.ids[otherIndex];
+        types[index] = other.types[otherIndex];
+        xs[index] = other.xs[otherIndex];
+        ys[index] = other.ys[otherIndex];
+    }
+
+    // Most bytes encode() can write for this snapshot, for sizing buffers
+    public int getMaxEncodedSize(Snapshot baseline) {
+        return 64 + 25 * count + 10 * (baseline == null ? 0 : baseline.count);
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getHighScore() {
+        return highScore;
+    }
+
+    public int getLife() {
+        return life;
+    }
+
+    public boolean isPlayerAlive() {
+        return (flags & PLAYER_ALIVE) != 0;
+    }
+
+    public boolean isPepperShotActive() {
+        return (flags & PEPPER_SHOT) != 0;
+    }
+
+    public boolean isGameOver() {
+        return (flags & GAME_OVER) != 0;
+    }
+
+    public double getPlayerX() {
+        return playerX / QUANTUM;
+    }
+
+    public double getPlayerY() {
+        return playerY / QUANTUM;
+    }
+
+    public int getEntityCount() {
+        return count;
+    }
+
+    public long getId(int index) {
+        return ids[index];
+    }
+
+    public EntityType getType(int index) {
+        return TYPES[types[index]];
+    }
+
+    public double getX(int index) {
+        return xs[index] / QUANTUM;
+    }
+
+    public double getY(int index) {
+        return ys[index] / QUANTUM;
+    }
+
+    private static int quantize(double position) {
+        return (int) Math.round(position * QUANTUM);
+    }
+
+    // Variable length encoding, 7 bits per byte, like InputRecording's
+    private static void writeVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    // Zigzag encoding keeps small negative numbers small: 0, -1, 1, -2, ... become 0, 1, 2, 3, ...
+    private static void writeSigned(ByteBuffer out, int value) {
+        writeVarLong(out, ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+    }
+
+    private static int readSigned(ByteBuffer in) {
+        int value = (int) readVarLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // Always 5 bytes, so it can be filled in once the value is known
+    private static void writePaddedVarInt(ByteBuffer out, int position, int value) {
+        for (int i = 0; i < 4; i++) {
+            out.put(position + i, (byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put(position + 4, (byte) (value & 0x7F));
+    }
+}
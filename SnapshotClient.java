@@ -0,0 +1,173 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/*
+Viewer side of SnapshotServer: receives the server's snapshots on a background thread and acknowledges each one,
+keeping the last few as baselines for the deltas that follow
+applyTo() copies the newest snapshot into a local world which is only ever drawn, never ticked, so the usual renderers
+and UI can show the server's game unchanged
+ */
+public class SnapshotClient implements AutoCloseable {
+
+    private static final int HISTORY = 64;      // Same as the server's, so any baseline it picks is still here
+
+    private final Socket socket;
+    private final Snapshot[] history = new Snapshot[HISTORY];
+    private volatile Snapshot latest;
+    private volatile boolean connected = true;
+    private volatile long bytesReceived = 0;
+
+    // The local world's copy of each server entity, sorted by server id like the snapshots, and a spare pair of arrays to merge into
+    private long[] mirrorIds = new long[256];
+    private Entity[] mirrors = new Entity[256];
+    private int mirrorCount = 0;
+    private long[] spareIds = new long[256];
+    private Entity[] spareMirrors = new Entity[256];
+
+    public SnapshotClient(String host, int port) throws IOException {
+        socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+
+        Thread receiver = new Thread(this::receiveLoop, "snapshot-receive");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    // Parses "host:port", or just "host" for the default port
+    public static SnapshotClient connect(String address) throws IOException {
+        int colon = address.lastIndexOf(':');
+        if (colon < 0) {
+            return new SnapshotClient(address, SnapshotServer.DEFAULT_PORT);
+        }
+        return new SnapshotClient(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+    }
+
+    public Snapshot getLatest() {
+        return latest;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    @Override
+    public void close() {
+        connected = false;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    private void receiveLoop() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(socket.getOutputStream())) {
+
+            byte[] message = new byte[4096];
+
+            while (true) {
+                int length = in.readInt();
+                if (message.length < length) {
+                    message = new byte[length * 2];
+                }
+                in.readFully(message, 0, length);
+                bytesReceived += 4 + length;
+
+                ByteBuffer buffer = ByteBuffer.wrap(message, 0, length);
+                long baselineSequence = Snapshot.peekBaseline(buffer);
+                Snapshot baseline = null;
+                if (baselineSequence != 0) {
+                    baseline = history[(int) (baselineSequence % HISTORY)];
+                    if (baseline == null || baseline.getSequence() != baselineSequence) {
+                        throw new IOException("Server sent a delta against snapshot " + baselineSequence + " which is no longer kept");
+                    }
+                }
+
+                Snapshot snapshot = Snapshot.decode(buffer, baseline);
+                history[(int) (snapshot.getSequence() % HISTORY)] = snapshot;
+                latest = snapshot;
+
+                out.writeLong(snapshot.getSequence());
+                out.flush();
+            }
+        } catch (IOException e) {
+            if (connected) {
+                System.err.println("Lost connection to the server: " + e.getMessage());
+            }
+        } finally {
+            connected = false;
+        }
+    }
+
+    /*
+    Makes the world match the newest snapshot: entities the server added are spawned, moved ones are moved, and ones it removed
+    are removed. Both lists are sorted by server id, so it's one pass over each
+     */
+    public void applyTo(World world) {
+        Snapshot snapshot = latest;
+        if (snapshot == null) {
+            return;
+        }
+
+        GameState state = world.getState();
+        state.score = snapshot.getScore();
+        state.highScore = snapshot.getHighScore();
+        state.life = snapshot.getLife();
+
+        Entity player = world.getPlayer();
+        player.x = snapshot.getPlayerX();
+        player.y = snapshot.getPlayerY();
+        player.alive = snapshot.isPlayerAlive();
+        world.setPepperShotActive(snapshot.isPepperShotActive());
+
+        int count = snapshot.getEntityCount();
+        if (spareIds.length < count) {
+            spareIds = new long[count * 2];
+            spareMirrors = new Entity[count * 2];
+        }
+        long[] newIds = spareIds;
+        Entity[] newMirrors = spareMirrors;
+        int mirror = 0;
+
+        for (int i = 0; i < count; i++) {
+            long id = snapshot.getId(i);
+
+            while (mirror < mirrorCount && mirrorIds[mirror] < id) {
+                world.removeEntity(mirrors[mirror++]);
+            }
+
+            Entity entity;
+            if (mirror < mirrorCount && mirrorIds[mirror] == id) {
+                entity = mirrors[mirror++];
+                entity.x = snapshot.getX(i);
+                entity.y = snapshot.getY(i);
+            } else {
+                entity = world.spawnEntity(snapshot.getType(i), snapshot.getX(i), snapshot.getY(i));
+            }
+
+            newIds[i] = id;
+            newMirrors[i] = entity;
+        }
+
+        while (mirror < mirrorCount) {
+            world.removeEntity(mirrors[mirror++]);
+        }
+
+        Arrays.fill(mirrors, 0, mirrorCount, null);
+        spareIds = mirrorIds;
+        spareMirrors = mirrors;
+        mirrorIds = newIds;
+        mirrors = newMirrors;
+        mirrorCount = count;
+    }
+}
@@ -0,0 +1,251 @@
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+Streams the world to any number of viewers over TCP (see SnapshotClient), the world itself is only ever run here
+publish() captures a snapshot after every tick and hands it to each viewer's sender thread, so the game loop never waits on
+the network. Each snapshot is sent as a delta against the newest one that viewer has acknowledged, or in full when it hasn't
+acknowledged one recently. A slow viewer skips snapshots rather than falling behind
+
+Messages are a 4 byte length followed by an encoded Snapshot, viewers answer each one with its 8 byte sequence number
+
+Can also be run on its own as an attract mode server, playing with one of BatchRunner's input policies:
+Usage: java SnapshotServer [port] [random|still|dodge]
+ */
+public class SnapshotServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 7777;
+
+    private static final int HISTORY = 64;      // Snapshots kept as possible baselines
+    private static final int MAX_BASELINE_AGE = HISTORY / 2;    // Viewers keep HISTORY snapshots too, so this leaves plenty of room
+
+    private final ServerSocket serverSocket;
+    private final List<Viewer> viewers = new CopyOnWriteArrayList<>();
+    private final Snapshot[] history = new Snapshot[HISTORY];
+    private volatile long latestSequence = 0;
+
+    // Totals for getStats()
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong snapshotsSent = new AtomicLong();
+    private final AtomicLong fullSnapshotsSent = new AtomicLong();
+    private volatile long ticksPublished = 0;
+
+    public SnapshotServer(int port) throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(port));
+
+        Thread acceptor = new Thread(this::acceptLoop, "snapshot-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    // Called by the game loop after every tick
+    public void publish(World world) {
+        ticksPublished++;
+
+        if (viewers.isEmpty()) {
+            return;
+        }
+
+        long sequence = latestSequence + 1;
+        Snapshot snapshot = Snapshot.capture(world, sequence);
+        synchronized (history) {
+            history[(int) (sequence % HISTORY)] = snapshot;
+        }
+        latestSequence = sequence;
+
+        for (Viewer viewer : viewers) {
+            LockSupport.unpark(viewer.sender);
+        }
+    }
+
+    public int getViewerCount() {
+        return viewers.size();
+    }
+
+    // Bandwidth so far, bytes per tick is summed over every viewer
+    public String getStats() {
+        long ticks = Math.max(1, ticksPublished);
+        long sent = Math.max(1, snapshotsSent.get());
+        return String.format("%d viewers, %.0f bytes/tick, %.0f bytes/snapshot, %d of %d snapshots sent in full",
+                viewers.size(), bytesSent.get() / (double) ticks, bytesSent.get() / (double) sent, fullSnapshotsSent.get(), snapshotsSent.get());
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            System.err.println("Could not close snapshot server: " + e.getMessage());
+        }
+
+        for (Viewer viewer : viewers) {
+            viewer.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Viewer viewer = new Viewer(socket);
+                viewers.add(viewer);
+                viewer.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Could not accept viewer: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private Snapshot getSnapshot(long sequence) {
+        synchronized (history) {
+            Snapshot snapshot = history[(int) (sequence % HISTORY)];
+            return snapshot != null && snapshot.getSequence() == sequence ? snapshot : null;
+        }
+    }
+
+    // One connected viewer: a sender thread writing snapshots and a reader thread taking its acknowledgements
+    private final class Viewer {
+
+        private final Socket socket;
+        private final Thread sender;
+        private final Thread reader;
+        private volatile long acknowledged = 0;
+        private long lastSent = 0;
+        private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+        private Viewer(Socket socket) {
+            this.socket = socket;
+            sender = new Thread(this::sendLoop, "snapshot-send-" + socket.getPort());
+            reader = new Thread(this::readLoop, "snapshot-ack-" + socket.getPort());
+            sender.setDaemon(true);
+            reader.setDaemon(true);
+        }
+
+        private void start() {
+            sender.start();
+            reader.start();
+        }
+
+        private void sendLoop() {
+            try {
+                OutputStream out = socket.getOutputStream();
+
+                while (!socket.isClosed()) {
+                    long sequence = latestSequence;
+                    if (sequence == lastSent) {
+                        LockSupport.park();
+                        continue;
+                    }
+
+                    Snapshot snapshot = getSnapshot(sequence);
+                    if (snapshot == null) {
+                        continue;
+                    }
+
+                    long baselineSequence = acknowledged;
+                    Snapshot baseline = sequence - baselineSequence < MAX_BASELINE_AGE ? getSnapshot(baselineSequence) : null;
+
+                    int size = snapshot.getMaxEncodedSize(baseline) + 4;
+                    if (buffer.capacity() < size) {
+                        buffer = ByteBuffer.allocate(size * 2);
+                    }
+                    buffer.clear();
+                    buffer.position(4);
+                    snapshot.encode(baseline, buffer);
+                    buffer.putInt(0, buffer.position() - 4);
+
+                    out.write(buffer.array(), 0, buffer.position());
+                    out.flush();
+
+                    lastSent = sequence;
+                    bytesSent.addAndGet(buffer.position());
+                    snapshotsSent.incrementAndGet();
+                    if (baseline == null) {
+                        fullSnapshotsSent.incrementAndGet();
+                    }
+                }
+            } catch (IOException e) {
+                // The viewer disconnected
+            } finally {
+                close();
+            }
+        }
+
+        private void readLoop() {
+            try (DataInputStream in = new DataInputStream(socket.getInputStream())) {
+                while (true) {
+                    acknowledged = in.readLong();
+                }
+            } catch (IOException e) {
+                // The viewer disconnected
+            } finally {
+                close();
+            }
+        }
+
+        private void close() {
+            viewers.remove(this);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+            LockSupport.unpark(sender);
+        }
+    }
+
+    // Runs an endless attract mode game in real time, restarting after every game over, and prints bandwidth every few seconds
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        BatchRunner.Policy policy = args.length > 1 ? BatchRunner.Policy.valueOf(args[1].toUpperCase()) : BatchRunner.Policy.DODGE;
+
+        World world = new World(new GameState());
+        GameRandom inputRandom = new GameRandom(world.getSeed() ^ 0x5DEECE66DL);
+        GameClock clock = GameClock.system();
+        long tickNanos = GameClock.NANOS_PER_SECOND / World.TICKS_PER_SECOND;
+        long ticksRun = 0;
+        long gameOverTicks = 0;
+        int input = 0;
+
+        try (SnapshotServer server = new SnapshotServer(port)) {
+            System.out.println("Serving on " + InetAddress.getLocalHost().getHostName() + ":" + port + ", playing with the " + policy.name().toLowerCase() + " policy");
+
+            while (true) {
+                // Catches up on every tick that's due, then sleeps until the next one
+                while (ticksRun * tickNanos <= clock.update()) {
+                    input = policy.nextInput(world, inputRandom, input);
+                    world.setInput(input);
+                    world.tick();
+                    server.publish(world);
+                    ticksRun++;
+
+                    // The last explosion is left on screen for a few seconds before the next game
+                    if (world.isGameOver() && ++gameOverTicks == 3 * World.TICKS_PER_SECOND) {
+                        world.reset();
+                        gameOverTicks = 0;
+                    }
+
+                    if (ticksRun % (5 * World.TICKS_PER_SECOND) == 0) {
+                        System.out.println(world.getEntityCount() + " entities, " + server.getStats());
+                    }
+                }
+
+                Thread.sleep(1);
+            }
+        }
+    }
+}
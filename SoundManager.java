@@ -1,38 +1,191 @@
 import javafx.scene.media.AudioClip;
 
-// Handles various audio clips used in different interactions
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+Handles various audio clips used in different interactions, the clips themselves are preloaded by AssetManager
+The play methods only flag the sound and wake the mixer thread, so the game loop never waits on audio
+The mixer thread then decides what's actually heard:
+- triggers of the same sound within a few milliseconds are merged into one
+- each sound can only have so many copies playing at once
+- once every voice is busy, a sound can take over the voices of a lower priority sound (explosions over blasters)
+ */
 public class SoundManager {
 
-    private static final AudioClip EXPLOSION_SOUND = new AudioClip(SoundManager.class.getResource("/assets/sound/explosion_sound.mp3").toExternalForm());
-    private static final AudioClip ENEMY_BLASTER_SOUND = new AudioClip(SoundManager.class.getResource("/assets/sound/enemy_blaster_sound.mp3").toExternalForm());
-    private static final AudioClip BLASTER_SOUND = new AudioClip(SoundManager.class.getResource("/assets/sound/blaster_sound.mp3").toExternalForm());
-    private static final AudioClip GAME_OVER_SOUND = new AudioClip(SoundManager.class.getResource("/assets/sound/game_over_sound.mp3").toExternalForm());
-    private static final AudioClip GAME_START_SOUND = new AudioClip(SoundManager.class.getResource("/assets/sound/game_start_sound.mp3").toExternalForm());
-    private static final AudioClip POWER_UP_SOUND = new AudioClip(SoundManager.class.getResource("/assets/sound/power_up_sound.mp3").toExternalForm());
+    private static final int MAX_VOICES = 8;                   // Clips playing at once across every sound
+    private static final long COALESCE_NANOS = 30_000_000L;    // Repeats of a sound closer than this are merged
+    private static final long NEVER = Long.MIN_VALUE / 2;      // Time for sounds that haven't played, far enough back not to overflow
+
+    /*
+    Every sound with its volume, priority (higher wins), how many copies can overlap, and how long a copy is counted as
+    playing (AudioClip doesn't report when a copy finishes, so this is roughly the length of the clip)
+     */
+    private enum Sound {
+        GAME_START("/assets/sound/game_start_sound.mp3", 1.0, 5, 1, 1500),
+        GAME_OVER("/assets/sound/game_over_sound.mp3", 1.0, 5, 1, 2000),
+        POWER_UP("/assets/sound/power_up_sound.mp3", 1.0, 4, 1, 800),
+        EXPLOSION("/assets/sound/explosion_sound.mp3", 0.25, 3, 3, 500),
+        BLASTER("/assets/sound/blaster_sound.mp3", 1.0, 2, 2, 250),
+        ENEMY_BLASTER("/assets/sound/enemy_blaster_sound.mp3", 0.25, 1, 2, 250);
+
+        private final String path;
+        private final double volume;
+        private final int priority;
+        private final long voiceNanos;
+        private final long[] voiceEndsAt;   // When each copy of this sound stops counting as playing
+        private final AtomicBoolean pending = new AtomicBoolean();
+        private AudioClip clip;
+        private long lastPlayed = NEVER;
+
+        Sound(String path, double volume, int priority, int maxVoices, long voiceMillis) {
+            this.path = path;
+            this.volume = volume;
+            this.priority = priority;
+            this.voiceNanos = voiceMillis * 1_000_000L;
+            this.voiceEndsAt = new long[maxVoices];
+            Arrays.fill(voiceEndsAt, NEVER);
+        }
+
+        private int activeVoices(long now) {
+            int active = 0;
+            for (long endsAt : voiceEndsAt) {
+                if (endsAt > now) active++;
+            }
+            return active;
+        }
+
+        // Returns the slot of a copy which has finished playing, or -1 if every copy is still playing
+        private int freeVoice(long now) {
+            for (int i = 0; i < voiceEndsAt.length; i++) {
+                if (voiceEndsAt[i] <= now) return i;
+            }
+            return -1;
+        }
+    }
+
+    // Highest priority first, so when many sounds are triggered at once the important ones get the free voices
+    private static final Sound[] BY_PRIORITY = Arrays.stream(Sound.values())
+            .sorted(Comparator.comparingInt((Sound sound) -> sound.priority).reversed())
+            .toArray(Sound[]::new);
+
+    private static final AtomicLong coalesced = new AtomicLong();
+    private static volatile long played = 0;
+    private static volatile long dropped = 0;
+    private static volatile long stolen = 0;
+
+    private static final Thread MIXER = new Thread(SoundManager::mix, "audio-mixer");
+
+    static {
+        MIXER.setDaemon(true);
+        MIXER.start();
+    }
 
     public static void playExplosionSound() {
-        EXPLOSION_SOUND.setVolume(0.25);
-        EXPLOSION_SOUND.play();
+        trigger(Sound.EXPLOSION);
     }
 
     public static void playEnemyBlasterSound() {
-        ENEMY_BLASTER_SOUND.setVolume(0.25);
-        ENEMY_BLASTER_SOUND.play();
+        trigger(Sound.ENEMY_BLASTER);
     }
 
     public static void playBlasterSound() {
-        BLASTER_SOUND.play();
+        trigger(Sound.BLASTER);
     }
 
     public static void playGameOverSound() {
-        GAME_OVER_SOUND.play();
+        trigger(Sound.GAME_OVER);
     }
 
     public static void playGameStartSound() {
-        GAME_START_SOUND.play();
+        trigger(Sound.GAME_START);
     }
 
     public static void playPowerUpSound() {
-        POWER_UP_SOUND.play();
+        trigger(Sound.POWER_UP);
+    }
+
+    // Called from the game loop, only flags the sound so it never blocks
+    private static void trigger(Sound sound) {
+        if (sound.pending.getAndSet(true)) {
+            coalesced.incrementAndGet();    // Already waiting for the mixer
+        } else {
+            LockSupport.unpark(MIXER);
+        }
+    }
+
+    // Runs on the mixer thread, everything below here is only touched by it
+    private static void mix() {
+        for (Sound sound : Sound.values()) {
+            sound.clip = AssetManager.getSound(sound.path);
+        }
+
+        while (true) {
+            LockSupport.park();
+
+            long now = System.nanoTime();
+            for (Sound sound : BY_PRIORITY) {
+                if (sound.pending.getAndSet(false)) {
+                    play(sound, now);
+                }
+            }
+        }
+    }
+
+    private static void play(Sound sound, long now) {
+        if (now - sound.lastPlayed < COALESCE_NANOS) {
+            coalesced.incrementAndGet();
+            return;
+        }
+
+        int voice = sound.freeVoice(now);
+        if (voice < 0) {
+            dropped++;
+            return;
+        }
+
+        if (activeVoices(now) >= MAX_VOICES && !stealVoices(sound, now)) {
+            dropped++;
+            return;
+        }
+
+        sound.clip.play(sound.volume);
+        sound.voiceEndsAt[voice] = now + sound.voiceNanos;
+        sound.lastPlayed = now;
+        played++;
+    }
+
+    private static int activeVoices(long now) {
+        int active = 0;
+        for (Sound sound : BY_PRIORITY) {
+            active += sound.activeVoices(now);
+        }
+        return active;
+    }
+
+    // Stops the lowest priority sound that's playing, as long as it's lower than the given one
+    private static boolean stealVoices(Sound sound, long now) {
+        for (int i = BY_PRIORITY.length - 1; i >= 0; i--) {
+            Sound victim = BY_PRIORITY[i];
+
+            if (victim.priority >= sound.priority) {
+                return false;
+            }
+
+            if (victim.activeVoices(now) > 0) {
+                victim.clip.stop();     // AudioClip can only stop every copy of itself at once
+                Arrays.fill(victim.voiceEndsAt, NEVER);
+                stolen++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static String getStats() {
+        return "audio " + played + " played " + coalesced + " merged " + dropped + " dropped " + stolen + " stolen";
     }
 }
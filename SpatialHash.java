@@ -0,0 +1,129 @@
+import java.util.Arrays;
+
+/*
+Uniform grid over the playfield used as the broad phase for collision detection
+Objects are inserted into every cell their bounds overlap, and a query only returns objects from the cells
+the query area overlaps, so each object is only checked against nearby objects instead of everything on screen
+The grid is cleared and rebuilt every tick, its arrays are reused so rebuilding doesn't allocate
+ */
+public class SpatialHash<T> {
+
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+
+    private final int[] cellHead;   // First entry in each cell, -1 when the cell is empty
+    private int[] entryNext;        // Next entry in the same cell
+    private int[] entryItem;        // Index of the object an entry belongs to
+    private int entryCount = 0;
+
+    private Object[] items;
+    private int[] queryStamp;       // Stops an object covering several cells from being returned twice by the same query
+    private int itemCount = 0;
+    private int currentStamp = 0;
+
+    private int[] results;          // Indexes of the objects found by the last query
+
+    public SpatialHash(double width, double height, double cellSize) {
+        this.cellSize = cellSize;
+        this.columns = (int) Math.ceil(width / cellSize);
+        this.rows = (int) Math.ceil(height / cellSize);
+
+        cellHead = new int[columns * rows];
+        Arrays.fill(cellHead, -1);
+
+        entryNext = new int[256];
+        entryItem = new int[256];
+        items = new Object[64];
+        queryStamp = new int[64];
+        results = new int[64];
+    }
+
+    public void clear() {
+        Arrays.fill(cellHead, -1);
+        Arrays.fill(items, 0, itemCount, null);
+        entryCount = 0;
+        itemCount = 0;
+    }
+
+    public void insert(T item, double x, double y, double width, double height) {
+        if (itemCount == items.length) {
+            items = Arrays.copyOf(items, itemCount * 2);
+            queryStamp = Arrays.copyOf(queryStamp, itemCount * 2);
+            results = Arrays.copyOf(results, itemCount * 2);
+        }
+
+        int index = itemCount++;
+        items[index] = item;
+        queryStamp[index] = currentStamp;
+
+        int minColumn = column(x);
+        int maxColumn = column(x + width);
+        int minRow = row(y);
+        int maxRow = row(y + height);
+
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minColumn; c <= maxColumn; c++) {
+                if (entryCount == entryNext.length) {
+                    entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+                    entryItem = Arrays.copyOf(entryItem, entryCount * 2);
+                }
+
+                int cell = r * columns + c;
+                entryItem[entryCount] = index;
+                entryNext[entryCount] = cellHead[cell];
+                cellHead[cell] = entryCount;
+                entryCount++;
+            }
+        }
+    }
+
+    // Collects every object sharing a cell with the given area, returns how many were found (read them with getResult())
+    public int query(double x, double y, double width, double height) {
+        currentStamp++;
+        int count = 0;
+
+        int minColumn = column(x);
+        int maxColumn = column(x + width);
+        int minRow = row(y);
+        int maxRow = row(y + height);
+
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minColumn; c <= maxColumn; c++) {
+                for (int entry = cellHead[r * columns + c]; entry != -1; entry = entryNext[entry]) {
+                    int index = entryItem[entry];
+
+                    if (queryStamp[index] != currentStamp) {
+                        queryStamp[index] = currentStamp;
+                        results[count++] = index;
+                    }
+                }
+            }
+        }
+
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T getResult(int i) {
+        return (T) items[results[i]];
+    }
+
+    // Position the i-th result was inserted at since the last clear(), usable as an index into per-object scratch arrays
+    public int getResultIndex(int i) {
+        return results[i];
+    }
+
+    public int size() {
+        return itemCount;
+    }
+
+    // Objects partly off screen (e.g. enemies entering from the top) are kept in the edge cells
+    private int column(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor(x / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellSize)));
+    }
+}
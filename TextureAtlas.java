@@ -0,0 +1,110 @@
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+Every sprite and effect packed into one image at load time, so all objects on screen share a single texture
+The region table maps each original image path to the rectangle it was copied into, sprites show their region through
+an ImageView viewport and the canvas renderer draws it with drawImage's source rectangle
+Sprites are packed onto shelves, tallest first, with transparent padding between them so scaled sprites don't pick up
+their neighbours' edges
+ */
+public class TextureAtlas {
+
+    public static final String[] SPRITE_PATHS = {
+            "/assets/sprite/pizza.png",
+            "/assets/sprite/enemy.png",
+            "/assets/sprite/salt.png",
+            "/assets/sprite/pepper.png",
+            "/assets/projectile/projectile.png",
+            "/assets/projectile/enemy_projectile.png",
+            "/assets/effect/explosion.png"
+    };
+
+    private static final int PADDING = 2;
+    private static final int MAX_WIDTH = 1024;
+
+    private final WritableImage image;
+    private final Map<String, Rectangle2D> regions = new HashMap<>();
+
+    public TextureAtlas(String[] paths) {
+        Image[] images = new Image[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            images[i] = AssetManager.getImage(paths[i]);
+        }
+
+        // Packing tallest first keeps the shelves tight
+        Integer[] order = new Integer[paths.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> -images[i].getHeight()));
+
+        int[] x = new int[paths.length];
+        int[] y = new int[paths.length];
+        int shelfX = PADDING;
+        int shelfY = PADDING;
+        int shelfHeight = 0;
+        int atlasWidth = 0;
+
+        for (int i : order) {
+            int width = (int) images[i].getWidth();
+            int height = (int) images[i].getHeight();
+
+            // Starts a new shelf once the current one is full
+            if (shelfX + width + PADDING > MAX_WIDTH && shelfX > PADDING) {
+                shelfX = PADDING;
+                shelfY += shelfHeight + PADDING;
+                shelfHeight = 0;
+            }
+
+            x[i] = shelfX;
+            y[i] = shelfY;
+            shelfX += width + PADDING;
+            shelfHeight = Math.max(shelfHeight, height);
+            atlasWidth = Math.max(atlasWidth, shelfX);
+        }
+
+        image = new WritableImage(Math.max(1, atlasWidth), Math.max(1, shelfY + shelfHeight + PADDING));
+        PixelWriter writer = image.getPixelWriter();
+
+        for (int i = 0; i < paths.length; i++) {
+            int width = (int) images[i].getWidth();
+            int height = (int) images[i].getHeight();
+            PixelReader reader = images[i].getPixelReader();
+
+            writer.setPixels(x[i], y[i], width, height, reader, 0, 0);
+            regions.put(paths[i], new Rectangle2D(x[i], y[i], width, height));
+        }
+    }
+
+    public Image getImage() {
+        return image;
+    }
+
+    public Rectangle2D getRegion(String path) {
+        Rectangle2D region = regions.get(path);
+        if (region == null) {
+            throw new IllegalArgumentException(path + " is not in the texture atlas");
+        }
+        return region;
+    }
+
+    // Shows the given sprite's region of the atlas in the view
+    public void applyTo(ImageView view, String path) {
+        view.setImage(image);
+        view.setViewport(getRegion(path));
+    }
+
+    public String getStats() {
+        return "atlas " + (int) image.getWidth() + "x" + (int) image.getHeight() + " sprites " + regions.size();
+    }
+}
@@ -0,0 +1,287 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/*
+Hierarchical timing wheel driven by the world tick, holds every cooldown and timed effect in the game
+There are 4 wheels of 64 slots, the first has one slot per tick, each wheel after it one slot per full turn of the wheel below,
+so timers up to 64^4 ticks (about 77 hours) ahead fit. A timer goes into the lowest wheel its deadline fits in and moves down a
+wheel whenever the wheel below it comes round, so scheduling, cancelling, and re-arming are O(1) and each tick only looks
+at the slots that are due
+Timers are a kind and a payload (e.g. an entity handle) kept in parallel preallocated arrays, linked into their slot's list
+Each timer is returned as a generation checked handle like EntityRegistry's, so a handle to a timer that already ran out
+is never mistaken for a newer timer reusing its place
+ */
+public class TimerWheel {
+
+    public static final long NONE = -1;     // Handle that is never live, for timers that aren't running
+
+    // Called for every timer that runs out, with the kind and payload it was scheduled with
+    public interface Listener {
+        void onTimer(int kind, long payload);
+    }
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    public static final long MAX_DELAY = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private static final int FREE = -1;     // Bucket of a timer that isn't scheduled
+
+    private final int[] heads = new int[LEVELS * SLOTS];    // First timer in each slot, -1 when empty
+
+    private long[] deadlines;
+    private int[] kinds;
+    private long[] payloads;
+    private int[] generations;
+    private int[] buckets;      // Slot each timer is linked into, FREE when it isn't scheduled
+    private int[] nexts;        // Next timer in the same slot, or in the free list
+    private int[] prevs;
+    private int freeHead = -1;
+    private int used = 0;       // Timers handed out so far, the ones past this have never been used
+
+    private long currentTick = 0;
+    private int scheduled = 0;
+
+    public TimerWheel(int capacity) {
+        Arrays.fill(heads, -1);
+        deadlines = new long[capacity];
+        kinds = new int[capacity];
+        payloads = new long[capacity];
+        generations = new int[capacity];
+        buckets = new int[capacity];
+        nexts = new int[capacity];
+        prevs = new int[capacity];
+        Arrays.fill(buckets, FREE);
+    }
+
+    // Schedules a timer which runs out the given number of ticks from now (at least 1) and returns its handle
+    public long schedule(long delayTicks, int kind, long payload) {
+        int timer = allocate();
+        kinds[timer] = kind;
+        payloads[timer] = payload;
+        deadlines[timer] = currentTick + clampDelay(delayTicks);
+        link(timer);
+        scheduled++;
+        return handleOf(timer);
+    }
+
+    // Moves a running timer's deadline to the given number of ticks from now, returns false if it isn't running
+    public boolean reschedule(long handle, long delayTicks) {
+        if (!isLive(handle)) {
+            return false;
+        }
+
+        int timer = (int) handle;
+        unlink(timer);
+        deadlines[timer] = currentTick + clampDelay(delayTicks);
+        link(timer);
+        return true;
+    }
+
+    // Stops a timer before it runs out, does nothing if it isn't running
+    public void cancel(long handle) {
+        if (isLive(handle)) {
+            int timer = (int) handle;
+            unlink(timer);
+            release(timer);
+        }
+    }
+
+    public boolean isLive(long handle) {
+        int timer = (int) handle;
+        return handle >= 0 && timer < used && generations[timer] == (int) (handle >>> 32) && buckets[timer] != FREE;
+    }
+
+    // Ticks until the timer runs out, 0 if it isn't running
+    public long getTicksLeft(long handle) {
+        return isLive(handle) ? deadlines[(int) handle] - currentTick : 0;
+    }
+
+    // Runs every timer due up to and including the given tick, timers scheduled by the listener run on later ticks
+    public void advance(long toTick, Listener listener) {
+        while (currentTick < toTick) {
+            currentTick++;
+
+            // Higher wheels first, so timers moved down into a lower wheel's current slot are moved down again straight away
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+
+            // Everything in the first wheel's current slot is due now, anything new lands in a later slot
+            int bucket = (int) (currentTick & SLOT_MASK);
+            while (heads[bucket] != -1) {
+                int timer = heads[bucket];
+                int kind = kinds[timer];
+                long payload = payloads[timer];
+                unlink(timer);
+                release(timer);
+                listener.onTimer(kind, payload);
+            }
+        }
+    }
+
+    // Drops every timer without running it, e.g. when the game restarts
+    public void clear() {
+        for (int bucket = 0; bucket < heads.length; bucket++) {
+            while (heads[bucket] != -1) {
+                int timer = heads[bucket];
+                unlink(timer);
+                release(timer);
+            }
+        }
+    }
+
+    public int size() {
+        return scheduled;
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    // The 2 methods below save and load the wheel exactly (see SaveState), so timers keep their handles and run in the same order
+    public void write(ByteBuffer out) {
+        out.putLong(currentTick);
+        out.putInt(used);
+        out.putInt(freeHead);
+        out.putInt(scheduled);
+        for (int head : heads) {
+            out.putInt(head);
+        }
+        for (int i = 0; i < used; i++) {
+            out.putLong(deadlines[i]);
+            out.putInt(kinds[i]);
+            out.putLong(payloads[i]);
+            out.putInt(generations[i]);
+            out.putInt(buckets[i]);
+            out.putInt(nexts[i]);
+            out.putInt(prevs[i]);
+        }
+    }
+
+    public void read(ByteBuffer in) {
+        currentTick = in.getLong();
+        int newUsed = in.getInt();
+        if (newUsed < 0 || 36L * newUsed > in.remaining()) {
+            throw new IllegalArgumentException("Timer wheel state is damaged");
+        }
+        while (deadlines.length < newUsed) {
+            grow();
+        }
+
+        used = newUsed;
+        freeHead = in.getInt();
+        scheduled = in.getInt();
+        for (int i = 0; i < heads.length; i++) {
+            heads[i] = in.getInt();
+        }
+
+        for (int i = 0; i < used; i++) {
+            deadlines[i] = in.getLong();
+            kinds[i] = in.getInt();
+            payloads[i] = in.getLong();
+            generations[i] = in.getInt();
+            buckets[i] = in.getInt();
+            nexts[i] = in.getInt();
+            prevs[i] = in.getInt();
+        }
+        Arrays.fill(buckets, used, buckets.length, FREE);
+    }
+
+    // Bytes write() needs
+    public int getSavedSize() {
+        return 20 + 4 * heads.length + 36 * used;
+    }
+
+    private void cascade(int level) {
+        int bucket = level * SLOTS + (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        int timer = heads[bucket];
+        heads[bucket] = -1;
+
+        while (timer != -1) {
+            int next = nexts[timer];
+            link(timer);
+            timer = next;
+        }
+    }
+
+    // Puts the timer into the lowest wheel whose current turn its deadline falls in
+    private void link(int timer) {
+        long deadline = deadlines[timer];
+        int level = 0;
+        while (level < LEVELS - 1 && ((deadline ^ currentTick) >>> (SLOT_BITS * (level + 1))) != 0) {
+            level++;
+        }
+
+        int bucket = level * SLOTS + (int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+        int head = heads[bucket];
+        nexts[timer] = head;
+        prevs[timer] = -1;
+        if (head != -1) {
+            prevs[head] = timer;
+        }
+        heads[bucket] = timer;
+        buckets[timer] = bucket;
+    }
+
+    private void unlink(int timer) {
+        int next = nexts[timer];
+        int prev = prevs[timer];
+
+        if (prev != -1) {
+            nexts[prev] = next;
+        } else {
+            heads[buckets[timer]] = next;
+        }
+        if (next != -1) {
+            prevs[next] = prev;
+        }
+    }
+
+    private int allocate() {
+        if (freeHead != -1) {
+            int timer = freeHead;
+            freeHead = nexts[timer];
+            return timer;
+        }
+
+        if (used == deadlines.length) {
+            grow();
+        }
+        return used++;
+    }
+
+    private void release(int timer) {
+        buckets[timer] = FREE;
+        generations[timer]++;
+        nexts[timer] = freeHead;
+        freeHead = timer;
+        scheduled--;
+    }
+
+    private void grow() {
+        int size = deadlines.length * 2;
+        deadlines = Arrays.copyOf(deadlines, size);
+        kinds = Arrays.copyOf(kinds, size);
+        payloads = Arrays.copyOf(payloads, size);
+        generations = Arrays.copyOf(generations, size);
+        nexts = Arrays.copyOf(nexts, size);
+        prevs = Arrays.copyOf(prevs, size);
+        buckets = Arrays.copyOf(buckets, size);
+        Arrays.fill(buckets, used, size, FREE);
+    }
+
+    private static long clampDelay(long ticks) {
+        if (ticks > MAX_DELAY) {
+            throw new IllegalArgumentException("Timers can be at most " + MAX_DELAY + " ticks long");
+        }
+        return Math.max(1, ticks);
+    }
+
+    private long handleOf(int timer) {
+        return ((long) generations[timer] << 32) | timer;
+    }
+}
@@ -1,7 +1,6 @@
 import javafx.animation.Animation;
 import javafx.animation.FadeTransition;
 import javafx.scene.Node;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
@@ -11,6 +10,7 @@ import javafx.scene.text.Text;
 import javafx.util.Duration;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 // Handles UI elements such as score, instructions, logo, life, and game over screen
@@ -21,16 +21,24 @@ public class UIManager {
     private final GameState gameState;
     private final Font pixelFont;
 
+    private static final int SHOWN_SCORES = 5;      // Best scores listed on the continue screen
+
     private ImageView logo;
     private Text instructionText;
     private FadeTransition instructionPulse;    // Pulse animation for instruction
 
     private Set<Node> continueScreenNodes = new HashSet<>();    // Includes text and dimming effect which appears on the game over screen
 
+    // The labels are set once, the numbers are drawn from a pre-rendered digit strip and only change when the value does
     private Text scoreText;
     private Text highScoreText;
+    private DigitDisplay scoreDigits;
+    private DigitDisplay highScoreDigits;
     private LifeIcon lifeIcon1, lifeIcon2, lifeIcon3;
     private Text lifeText;
+    private int shownLife = -1;
+    private Text clockText;     // Shows when the game is paused or running at another speed
+    private Text rewindText;    // Shows while the game is being rewound or the kill cam is playing
 
     public UIManager(Pane gamePane, Pane uiPane, GameState gameState, Font pixelFont) {
         this.gamePane = gamePane;
@@ -40,7 +48,7 @@ public class UIManager {
     }
 
     public void setupInitialScreen() {
-        logo = new ImageView(new Image(getClass().getResource("/assets/background/logo.png").toExternalForm()));
+        logo = new ImageView(AssetManager.getImage("/assets/background/logo.png"));
         logo.setFitWidth(500);
         logo.setPreserveRatio(true);
         logo.setX(384 - (500 / 2.0));
@@ -61,19 +69,28 @@ public class UIManager {
         instructionPulse.setAutoReverse(true);
         instructionPulse.play();
 
-        highScoreText = new Text("hi score\t\t" + gameState.highScore);
+        highScoreText = new Text("hi score");
         highScoreText.setFill(Color.RED);
         highScoreText.setFont(pixelFont);
         highScoreText.setX(50);
         highScoreText.setY(50);
         uiPane.getChildren().add(highScoreText);
 
-        scoreText = new Text("score\t\t" + gameState.score);
+        scoreText = new Text("score");
         scoreText.setFill(Color.RED);
         scoreText.setFont(pixelFont);
         scoreText.setX(50);
         scoreText.setY(100);
         uiPane.getChildren().add(scoreText);
+
+        // Both numbers line up in one column after the longer label, like the tabs they replace
+        DigitStrip digitStrip = new DigitStrip(pixelFont, Color.RED);
+        double digitsX = 50 + highScoreText.getLayoutBounds().getWidth() + 2 * digitStrip.getCellWidth();
+
+        highScoreDigits = new DigitDisplay(digitStrip, digitsX, 50);
+        scoreDigits = new DigitDisplay(digitStrip, digitsX, 100);
+        uiPane.getChildren().addAll(highScoreDigits, scoreDigits);
+        updateScore();
     }
 
     // Sets up score and life UI on game start
@@ -84,6 +101,7 @@ public class UIManager {
             instructionPulse.stop();
         }
 
+        shownLife = -1;
         lifeIcon1 = new LifeIcon(20, 950);
         lifeIcon2 = new LifeIcon(70, 950);
         lifeIcon3 = new LifeIcon(120, 950);
@@ -102,21 +120,66 @@ public class UIManager {
         uiPane.getChildren().add(lifeText);
     }
 
+    // Called every frame, the displays skip values they already show
     public void updateScore() {
-        scoreText.setText("score\t\t" + gameState.score);
-
-        if (gameState.score > gameState.highScore) {
-            highScoreText.setText("hi score\t\t" + gameState.score);
-        }
+        scoreDigits.setValue(gameState.score);
+        highScoreDigits.setValue(gameState.highScore);
     }
 
     public void updateLives() {
+        if (gameState.life == shownLife) {
+            return;
+        }
+        shownLife = gameState.life;
+
         lifeIcon1.setVisible(gameState.life >= 1);
         lifeIcon2.setVisible(gameState.life >= 2);
         lifeIcon3.setVisible(gameState.life >= 3);
     }
 
-    public void showContinueScreen() {
+    public void updateClockStatus(boolean paused, double scale) {
+        if (clockText == null) {
+            clockText = new Text();
+            clockText.setFont(pixelFont);
+            clockText.setFill(Color.YELLOW);
+            clockText.setY(150);
+        }
+
+        if (!paused && scale == 1) {
+            uiPane.getChildren().remove(clockText);
+            return;
+        }
+
+        clockText.setText(paused ? "paused" : "speed x" + (scale < 1 ? "1/" + Math.round(1 / scale) : String.valueOf(Math.round(scale))));
+        clockText.setX(718 - clockText.getLayoutBounds().getWidth());
+        if (!uiPane.getChildren().contains(clockText)) {
+            uiPane.getChildren().add(clockText);
+        }
+    }
+
+    // Null hides the text
+    public void updateRewindStatus(String status) {
+        if (rewindText == null) {
+            rewindText = new Text();
+            rewindText.setFont(pixelFont);
+            rewindText.setFill(Color.CYAN);
+            rewindText.setY(200);
+        }
+
+        if (status == null) {
+            uiPane.getChildren().remove(rewindText);
+            return;
+        }
+
+        rewindText.setText(status);
+        rewindText.setX(718 - rewindText.getLayoutBounds().getWidth());
+        if (!uiPane.getChildren().contains(rewindText)) {
+            uiPane.getChildren().add(rewindText);
+        }
+    }
+
+    // Shows the game over text and the best scores so far (at most the first SHOWN_SCORES of them)
+    public void showContinueScreen(List<ScoreStore.Entry> topScores) {
         Rectangle dimBackground = new Rectangle(gamePane.getWidth(), gamePane.getHeight(), Color.color(0, 0, 0, 0.6));
 
         Text gameOverText = new Text("game over");
@@ -139,6 +202,17 @@ public class UIManager {
 
         uiPane.getChildren().addAll(dimBackground, gameOverText, continueText, escapeText);
         continueScreenNodes.addAll(Set.of(dimBackground, gameOverText, continueText, escapeText));
+
+        for (int i = 0; i < Math.min(SHOWN_SCORES, topScores.size()); i++) {
+            Text scoreLine = new Text((i + 1) + ". " + topScores.get(i).score());
+            scoreLine.setFont(pixelFont);
+            scoreLine.setFill(i == 0 ? Color.YELLOW : Color.WHITE);
+            scoreLine.setX(gamePane.getWidth() / 2 - 100);
+            scoreLine.setY(700 + i * 50);
+
+            uiPane.getChildren().add(scoreLine);
+            continueScreenNodes.add(scoreLine);
+        }
     }
 
     public void hideContinueScreen() {
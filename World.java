@@ -0,0 +1,912 @@
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+Plain Java model of the game which doesn't depend on JavaFX
+Holds the position, velocity, and hitbox of every object, the player's life and score, every cooldown, and spawning
+It's advanced one fixed tick at a time by tick(), so it can run without a window (see HeadlessRunner)
+ */
+public class World {
+
+    public static final double WIDTH = 768;
+    public static final double HEIGHT = 1024;
+    public static final int TICKS_PER_SECOND = 60;
+    public static final long NEVER = Long.MIN_VALUE / 2;   // Timestamp for things that haven't happened yet
+
+    // Input is passed in as a bit mask so the world doesn't need to know about key codes
+    public static final int INPUT_UP = 1;
+    public static final int INPUT_DOWN = 2;
+    public static final int INPUT_LEFT = 4;
+    public static final int INPUT_RIGHT = 8;
+    public static final int INPUT_FIRE = 16;
+
+    private static final double PLAYER_SPEED = 3;
+    private static final double PROJECTILE_SPEED = -10;
+    private static final double ENEMY_PROJECTILE_SPEED = 2.5;
+
+    // Every duration and timestamp below is in nanoseconds of game time
+    private static final long ENEMY_FIRE_COOLDOWN = GameClock.millisToNanos(750);
+    private static final long POWER_UP_DURATION = GameClock.millisToNanos(15000);
+    private static final long EXPLOSION_DURATION = GameClock.millisToNanos(300);
+    private static final long POWER_UP_TICKS = toTicks(POWER_UP_DURATION);
+    private static final long EXPLOSION_TICKS = toTicks(EXPLOSION_DURATION);
+    private static final long DAMAGE_COOLDOWN = GameClock.millisToNanos(1000);      // Invulnerability time given once player sprite takes damage
+    private static final long BOOSTED_FIRE_COOLDOWN = GameClock.millisToNanos(250);
+
+    // Balance settings in milliseconds, can be changed for balance studies with e.g. -Dworld.spawnCooldown=1000 (see BatchRunner)
+    // A new world reads them from the system properties, recordings keep the values they were played with (see setBalance)
+    public static final String[] BALANCE_SETTINGS = {"world.fireCooldown", "world.spawnCooldown", "world.powerUpSpawnCooldown",
+            "world.difficultyInterval", "world.spawnCooldownStep", "world.minSpawnCooldown"};
+    private static final long[] BALANCE_DEFAULTS = {750, 1250, 20000, 30000, 50, 1000};
+
+    // Stress mode settings, the player can't be hurt, fires a wide volley, and enemies spawn and fire far faster
+    private static final double[] STRESS_VOLLEY_OFFSETS = {-240, -180, -120, -60, 60, 120, 180, 240};
+    private static final long STRESS_FIRE_COOLDOWN = GameClock.millisToNanos(100);
+    private static final long STRESS_ENEMY_FIRE_COOLDOWN = GameClock.millisToNanos(250);
+    private static final int STRESS_RAMP_TICKS = TICKS_PER_SECOND;     // How often the spawn rate is adjusted
+
+    private final GameState state;
+    private long seed;
+    private final GameRandom random;
+    private InputRecording recording;   // Set while the session is being recorded
+    private WorldListener listener = new WorldListener() {};
+    private final FrameProfiler profiler = new FrameProfiler();
+
+    private final Entity player = new Entity();
+    private final EntityRegistry enemies = new EntityRegistry(64);
+    private final EntityRegistry enemyProjectiles = new EntityRegistry(256);
+    private final EntityRegistry playerProjectiles = new EntityRegistry(256);
+    private final EntityRegistry powerUps = new EntityRegistry(8);
+    private final EntityRegistry explosions = new EntityRegistry(64);
+    private final CollisionEvents collisionEvents = new CollisionEvents(64);
+    private final ObjectPool<Entity> entityPool = new ObjectPool<>(1024, Entity::new, Entity::reset);
+    private long nextEntityId = 1;
+
+    private final Set<Double> fireOffsets = new HashSet<>();    // Used when creating projectiles fired from clones once power up is activated
+    private double leftmostOffset = -80;        // Outermost clone offsets, updated whenever fireOffsets changes
+    private double rightmostOffset = 80;
+
+    private int input = 0;
+    private long tick = 0;
+    private long gameStartTick = 0;
+    private final GameClock clock = GameClock.manual();    // Moved forward exactly one tick's worth of time every tick
+    private long now = 0;           // Clock time at the start of the current tick
+    private boolean gameOver = false;
+
+    // Used in fire rate, spawn rate for enemies and power ups, and increasing difficulty as time progresses
+    private long timeSinceLastFired = NEVER;
+    private long timeSinceLastSpawned = NEVER;
+    private long timeSincePowerUpLastSpawned = NEVER;
+    private long lastSpawnDifficultyIncrease = 0;
+
+    private long FIRE_COOLDOWN;      // Player firing cooldown
+    private long SPAWN_COOLDOWN;     // Enemy spawning cooldown
+
+    // Balance settings (see BALANCE_SETTINGS), in milliseconds as given and in nanoseconds as used
+    private final long[] balance = new long[BALANCE_SETTINGS.length];
+    private long baseFireCooldown;
+    private long baseSpawnCooldown;
+    private long powerUpSpawnCooldown;
+    private long difficultyInterval;
+    private long spawnCooldownStep;
+    private long minSpawnCooldown;
+
+    // Stress mode (see setStressTarget), the target is 0 in a normal game
+    private int stressTarget = 0;
+    private int stressSpawnsPerTick = 0;
+    private long enemyFireCooldown = ENEMY_FIRE_COOLDOWN;
+
+    // Every cooldown and timed effect runs on the timer wheel, the handles are TimerWheel.NONE while nothing is running
+    private static final int FIRE_RATE_BOOST_TIMER = 0;
+    private static final int PEPPER_SHOT_TIMER = 1;
+    private static final int INVULNERABILITY_TIMER = 2;
+    private static final int EXPLOSION_TIMER = 3;      // Payload: the explosion's handle
+    private static final int ENEMY_FIRE_TIMER = 4;     // Payload: the enemy's handle
+
+    private final TimerWheel timers = new TimerWheel(256);
+    private final TimerWheel.Listener timerListener = this::onTimer;
+    private long fireRateBoostTimer = TimerWheel.NONE;
+    private long pepperShotTimer = TimerWheel.NONE;
+    private long invulnerabilityTimer = TimerWheel.NONE;
+
+    public World(GameState state) {
+        this(state, System.nanoTime());
+    }
+
+    // Worlds created with the same seed and fed the same input on the same ticks play out exactly the same
+    public World(GameState state, long seed) {
+        this.state = state;
+        this.seed = seed;
+        this.random = new GameRandom(seed);
+
+        // Builds the hitboxes now rather than reading the sprites in the middle of the tick with the first collision
+        CollisionMask.preload();
+
+        player.reset();
+        player.type = EntityType.PLAYER;
+        player.width = EntityType.PLAYER.width;
+        player.height = EntityType.PLAYER.height;
+        player.alive = true;
+        setBalance(readBalance());
+        reset();
+    }
+
+    public void setListener(WorldListener listener) {
+        this.listener = listener;
+    }
+
+    public void setInput(int input) {
+        if (recording != null && input != this.input) {
+            recording.addInput(tick, input);
+        }
+
+        this.input = input;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+        random.setState(seed);
+    }
+
+    // Records every input change and restart from now on, starting with the input currently held
+    public void startRecording(InputRecording recording) {
+        this.recording = recording;
+        recording.addInput(tick, input);
+    }
+
+    public InputRecording getRecording() {
+        return recording;
+    }
+
+    // Resets all values to default on game restart, the high score and spawn timers carry over between games
+    public void reset() {
+        if (recording != null) {
+            recording.addReset(tick);
+        }
+
+        state.life = 3;
+        state.score = 0;
+        state.timeSinceLastTookDamage = NEVER;
+        FIRE_COOLDOWN = stressTarget > 0 ? STRESS_FIRE_COOLDOWN : baseFireCooldown;
+        SPAWN_COOLDOWN = baseSpawnCooldown;
+        stressSpawnsPerTick = 0;
+        lastSpawnDifficultyIncrease = now;
+        gameStartTick = tick;
+        timers.clear();
+        fireRateBoostTimer = TimerWheel.NONE;
+        pepperShotTimer = TimerWheel.NONE;
+        invulnerabilityTimer = TimerWheel.NONE;
+        fireOffsets.clear();
+        updateOutermostOffsets();
+        gameOver = false;
+
+        clearEntities(enemies);
+        clearEntities(enemyProjectiles);
+        clearEntities(playerProjectiles);
+        clearEntities(powerUps);
+        clearEntities(explosions);
+
+        player.x = 384 - player.width / 2;
+        player.y = 800;
+        player.alive = true;
+    }
+
+    // Advances the whole world by one tick
+    public void tick() {
+        tick++;
+        clock.advanceTo(tick * GameClock.NANOS_PER_SECOND / TICKS_PER_SECOND);
+        now = clock.nanoTime();
+
+        // Each phase is timed so the profiler can show which one uses up the frame
+        long phaseStart = profiler.start();
+
+        // Explosions still fade out on the game over screen
+        timers.advance(tick, timerListener);
+        if (gameOver) {
+            removeDead(explosions);
+            return;
+        }
+        phaseStart = profiler.record(FrameProfiler.Phase.TIMERS, phaseStart);
+
+        updateDifficulty();
+        phaseStart = profiler.record(FrameProfiler.Phase.DIFFICULTY, phaseStart);
+
+        handlePlayerMovement();
+        handlePlayerFiring();
+        phaseStart = profiler.record(FrameProfiler.Phase.PLAYER, phaseStart);
+
+        handleEnemySpawning();
+        handlePowerUpSpawning();
+        phaseStart = profiler.record(FrameProfiler.Phase.SPAWNING, phaseStart);
+
+        moveEntities();
+        phaseStart = profiler.record(FrameProfiler.Phase.MOVEMENT, phaseStart);
+
+        CollisionManager.detect(this, collisionEvents);
+        phaseStart = profiler.record(FrameProfiler.Phase.COLLISION, phaseStart);
+
+        CollisionManager.resolve(this, collisionEvents);
+        phaseStart = profiler.record(FrameProfiler.Phase.RESOLVE, phaseStart);
+
+        removeDead(enemies);
+        removeDead(enemyProjectiles);
+        removeDead(playerProjectiles);
+        removeDead(powerUps);
+        removeDead(explosions);
+        profiler.record(FrameProfiler.Phase.CLEANUP, phaseStart);
+
+        if (state.life <= 0) {
+            spawnExplosion(player.getCenterX(), player.getCenterY());
+            player.alive = false;
+            gameOver = true;
+            disablePepperShot();
+            listener.onGameOver();
+        }
+    }
+
+    /*
+    Stress mode pushes the game until about the given number of objects are alive at once, for measuring how frame time
+    grows with entity count (see FrameProfiler.getScalingSummary())
+    The enemy spawn rate is raised every second while there are fewer objects than the target and lowered while there are
+    more, so a run sweeps through every entity count up to the target and then holds there. 0 turns stress mode off
+     */
+    public void setStressTarget(int entities) {
+        stressTarget = Math.max(0, entities);
+        stressSpawnsPerTick = 0;
+        enemyFireCooldown = stressTarget > 0 ? STRESS_ENEMY_FIRE_COOLDOWN : ENEMY_FIRE_COOLDOWN;
+        FIRE_COOLDOWN = stressTarget > 0 ? STRESS_FIRE_COOLDOWN : baseFireCooldown;
+    }
+
+    public int getStressTarget() {
+        return stressTarget;
+    }
+
+    // The balance settings given with the world.* system properties, or their defaults
+    public static long[] readBalance() {
+        long[] millis = new long[BALANCE_SETTINGS.length];
+        for (int i = 0; i < millis.length; i++) {
+            millis[i] = Long.getLong(BALANCE_SETTINGS[i], BALANCE_DEFAULTS[i]);
+        }
+        return millis;
+    }
+
+    // Changes the balance settings (milliseconds, in BALANCE_SETTINGS order), meant to be called before a game starts like setStressTarget
+    public void setBalance(long[] millis) {
+        if (millis.length != balance.length) {
+            throw new IllegalArgumentException("Expected " + balance.length + " balance settings, got " + millis.length);
+        }
+
+        System.arraycopy(millis, 0, balance, 0, balance.length);
+        baseFireCooldown = GameClock.millisToNanos(millis[0]);
+        baseSpawnCooldown = GameClock.millisToNanos(millis[1]);
+        powerUpSpawnCooldown = GameClock.millisToNanos(millis[2]);
+        difficultyInterval = GameClock.millisToNanos(millis[3]);
+        spawnCooldownStep = GameClock.millisToNanos(millis[4]);
+        minSpawnCooldown = GameClock.millisToNanos(millis[5]);
+        FIRE_COOLDOWN = stressTarget > 0 ? STRESS_FIRE_COOLDOWN : baseFireCooldown;
+        SPAWN_COOLDOWN = baseSpawnCooldown;
+    }
+
+    public long[] getBalance() {
+        return balance.clone();
+    }
+
+    // Increases enemy spawn rate every 30 seconds, or adjusts it every second towards the stress mode target
+    private void updateDifficulty() {
+        if (stressTarget > 0) {
+            if (tick % STRESS_RAMP_TICKS == 0) {
+                stressSpawnsPerTick = Math.max(0, stressSpawnsPerTick + (getEntityCount() < stressTarget ? 1 : -1));
+            }
+            return;
+        }
+
+        if (now - lastSpawnDifficultyIncrease >= difficultyInterval && SPAWN_COOLDOWN > minSpawnCooldown) {
+            SPAWN_COOLDOWN -= spawnCooldownStep;
+            lastSpawnDifficultyIncrease = now;
+        }
+    }
+
+    private void handlePlayerMovement() {
+        double dx = 0;
+        double dy = 0;
+
+        // Shift x/y direction depending on input
+        if ((input & INPUT_UP) != 0) dy -= PLAYER_SPEED;
+        if ((input & INPUT_DOWN) != 0) dy += PLAYER_SPEED;
+        if ((input & INPUT_LEFT) != 0) dx -= PLAYER_SPEED;
+        if ((input & INPUT_RIGHT) != 0) dx += PLAYER_SPEED;
+
+        // Used for keeping player sprite within screen boundary, even if clones are currently activated
+        double leftOffset = 0;
+        double rightOffset = 0;
+        if (isPepperShotActive()) {
+            leftOffset = getLeftmostOffset();
+            rightOffset = getRightmostOffset();
+        }
+
+        double leftEdge = player.x + leftOffset;
+        double rightEdge = player.x + player.width + rightOffset;
+        double topEdge = player.y;
+        double bottomEdge = player.y + player.height;
+
+        if (leftEdge + dx < 0) dx += - (leftEdge + dx);
+        if (rightEdge + dx > WIDTH) dx -= (rightEdge + dx - WIDTH);
+
+        if (topEdge + dy < 0) dy += - (topEdge + dy);
+        if (bottomEdge + dy > HEIGHT) dy -= (bottomEdge + dy - HEIGHT);
+
+        player.x += dx;
+        player.y += dy;
+    }
+
+    // The 2 methods below return how far the outermost clones sit from the player sprite
+    public double getLeftmostOffset() {
+        return leftmostOffset;
+    }
+
+    public double getRightmostOffset() {
+        return rightmostOffset;
+    }
+
+    // Called whenever fireOffsets changes, so the player's movement doesn't search the set every tick
+    private void updateOutermostOffsets() {
+        leftmostOffset = -80;
+        rightmostOffset = 80;
+        boolean foundLeft = false;
+        boolean foundRight = false;
+
+        for (double offset : fireOffsets) {
+            if (offset < 0 && (!foundLeft || offset < leftmostOffset)) {
+                leftmostOffset = offset;
+                foundLeft = true;
+            } else if (offset > 0 && (!foundRight || offset > rightmostOffset)) {
+                rightmostOffset = offset;
+                foundRight = true;
+            }
+        }
+    }
+
+    // Handles fire rate with and without clones activated
+    private void handlePlayerFiring() {
+        boolean firing = (input & INPUT_FIRE) != 0 || stressTarget > 0;     // Stress mode fires non-stop
+        if (!firing || now - timeSinceLastFired < FIRE_COOLDOWN) {
+            return;
+        }
+
+        double centerX = player.getCenterX();
+
+        fireProjectile(centerX, player.y);
+
+        for (double offset : fireOffsets) {
+            fireProjectile(centerX + offset, player.y);
+        }
+
+        if (stressTarget > 0) {
+            for (double offset : STRESS_VOLLEY_OFFSETS) {
+                fireProjectile(centerX + offset, player.y);
+            }
+        }
+
+        listener.onPlayerFired();
+        timeSinceLastFired = now;
+    }
+
+    private void fireProjectile(double x, double y) {
+        Entity projectile = spawn(EntityType.PLAYER_PROJECTILE, playerProjectiles);
+        projectile.x = x - projectile.width / 2;
+        projectile.y = y - 25;
+        projectile.vy = PROJECTILE_SPEED;
+    }
+
+    // Manages current on-screen enemies and their spawn rate
+    private void handleEnemySpawning() {
+        if (stressTarget > 0) {
+            for (int i = 0; i < stressSpawnsPerTick && getEntityCount() < stressTarget; i++) {
+                spawnEnemy();
+            }
+        } else if (now - timeSinceLastSpawned >= SPAWN_COOLDOWN) {
+            spawnEnemy();
+            timeSinceLastSpawned = now;
+        }
+    }
+
+    private void spawnEnemy() {
+        Entity enemy = spawn(EntityType.ENEMY, enemies);
+
+        // Randomizes which side of the screen the enemy spawns at and the direction of its zigzag
+        int randomValueForStartingX = (int) (random.nextDouble() * 100);
+        int randomValueForDirection = (int) (random.nextDouble() * 100);
+        double startingX = (randomValueForStartingX <= 50) ? 256 : 512;
+
+        enemy.path = ZigzagPath.of(startingX, randomValueForDirection <= 50, enemy.width, 15);
+        moveAlongPath(enemy);
+        handleEnemyFiring(enemy);
+    }
+
+    /*
+    Fires if the enemy is on screen and then waits out the firing cooldown on the timer wheel,
+    otherwise (or while stress mode is at its target) it tries again next tick
+     */
+    private void handleEnemyFiring(Entity enemy) {
+        double currentX = enemy.getCenterX();
+        double currentY = enemy.y + enemy.height;
+
+        // Stress mode holds the number of objects at its target
+        boolean held = stressTarget > 0 && getEntityCount() >= stressTarget;
+
+        if (held || currentY <= 0 || currentY >= HEIGHT) {
+            timers.schedule(1, ENEMY_FIRE_TIMER, enemy.handle);
+            return;
+        }
+
+        Entity projectile = spawn(EntityType.ENEMY_PROJECTILE, enemyProjectiles);
+        projectile.x = currentX - projectile.width / 2;
+        projectile.y = currentY;
+        projectile.vy = ENEMY_PROJECTILE_SPEED;
+        timers.schedule(toTicks(enemyFireCooldown), ENEMY_FIRE_TIMER, enemy.handle);
+        listener.onEnemyFired();
+    }
+
+    // Randomizes between salt and pepper power up spawn
+    private void handlePowerUpSpawning() {
+        if (stressTarget == 0 && now - timeSincePowerUpLastSpawned >= powerUpSpawnCooldown) {
+            EntityType type = (random.nextDouble() >= 0.5) ? EntityType.SALT : EntityType.PEPPER;
+            Entity powerUp = spawn(type, powerUps);
+
+            int randomValueForStartingX = (int) (random.nextDouble() * 100);
+            double startingX = (randomValueForStartingX <= 50) ? 256 : 512;
+
+            powerUp.path = ZigzagPath.of(startingX, true, powerUp.width, 20);
+            moveAlongPath(powerUp);
+            timeSincePowerUpLastSpawned = now;
+        }
+    }
+
+    // Advances every moving object by one tick, removing the ones which have left the screen
+    private void moveEntities() {
+        for (Entity projectile : playerProjectiles) {
+            projectile.y += projectile.vy;
+            if (projectile.y < -100) projectile.alive = false;
+        }
+
+        for (Entity enemyProjectile : enemyProjectiles) {
+            enemyProjectile.y += enemyProjectile.vy;
+            if (enemyProjectile.y > HEIGHT) enemyProjectile.alive = false;
+        }
+
+        for (Entity enemy : enemies) {
+            followPath(enemy);
+        }
+
+        for (Entity powerUp : powerUps) {
+            followPath(powerUp);
+        }
+
+    }
+
+    private void followPath(Entity entity) {
+        entity.ticksAlive++;
+
+        if (entity.ticksAlive >= entity.path.getDurationTicks()) {
+            entity.alive = false;
+            return;
+        }
+
+        moveAlongPath(entity);
+    }
+
+    // The path describes the entity's center point
+    private void moveAlongPath(Entity entity) {
+        entity.x = entity.path.getX(entity.ticksAlive) - entity.width / 2;
+        entity.y = entity.path.getY(entity.ticksAlive) - entity.height / 2;
+    }
+
+    // The 2 methods below return where an enemy or power up will be on the given tick (top left corner), e.g. for aiming
+    public double getPathX(Entity entity, long atTick) {
+        return entity.path.getX(entity.ticksAlive + atTick - tick) - entity.width / 2;
+    }
+
+    public double getPathY(Entity entity, long atTick) {
+        return entity.path.getY(entity.ticksAlive + atTick - tick) - entity.height / 2;
+    }
+
+    // Called by the timer wheel for every timer that runs out, entity timers are skipped once the entity is gone
+    private void onTimer(int kind, long payload) {
+        switch (kind) {
+            case FIRE_RATE_BOOST_TIMER -> {
+                FIRE_COOLDOWN = baseFireCooldown;
+                fireRateBoostTimer = TimerWheel.NONE;
+            }
+            case PEPPER_SHOT_TIMER -> {
+                pepperShotTimer = TimerWheel.NONE;
+                disablePepperShot();
+            }
+            case INVULNERABILITY_TIMER -> invulnerabilityTimer = TimerWheel.NONE;
+            case EXPLOSION_TIMER -> {
+                Entity explosion = explosions.resolve(payload);
+                if (explosion != null) {
+                    explosion.alive = false;
+                }
+            }
+            case ENEMY_FIRE_TIMER -> {
+                Entity enemy = enemies.resolve(payload);
+                if (enemy != null && enemy.alive && !gameOver) {
+                    handleEnemyFiring(enemy);
+                }
+            }
+            default -> throw new IllegalStateException("Unknown timer " + kind);
+        }
+    }
+
+    // Starts a power up's timer, or sets it back to the full duration if that power up is already running
+    private long startOrRestart(long timer, int kind) {
+        if (timers.reschedule(timer, POWER_UP_TICKS)) {
+            return timer;
+        }
+        return timers.schedule(POWER_UP_TICKS, kind, 0);
+    }
+
+    // Game time in nanoseconds as whole ticks, rounded up
+    private static long toTicks(long nanos) {
+        return (nanos * TICKS_PER_SECOND + GameClock.NANOS_PER_SECOND - 1) / GameClock.NANOS_PER_SECOND;
+    }
+
+    // The 3 methods below are called by CollisionManager when it resolves the collisions it found
+    void damagePlayer() {
+        if (stressTarget == 0 && !timers.isLive(invulnerabilityTimer)) {
+            state.life--;
+            state.timeSinceLastTookDamage = now;
+            invulnerabilityTimer = timers.schedule(toTicks(DAMAGE_COOLDOWN), INVULNERABILITY_TIMER, 0);
+            listener.onPlayerHit();
+        }
+    }
+
+    void destroyEnemy(Entity enemy, Entity projectile) {
+        state.score += 5;
+        state.highScore = Math.max(state.highScore, state.score);
+
+        enemy.alive = false;
+        projectile.alive = false;
+        spawnExplosion(enemy.getCenterX(), enemy.getCenterY());
+        listener.onEnemyDestroyed(enemy);
+    }
+
+    /*
+    Salt: speed up fire rate
+    Pepper: spawns extra pizza slices which shoot alongside the player's sprite
+     */
+    void collectPowerUp(Entity powerUp) {
+        powerUp.alive = false;
+
+        // Picking up a power up which is already running restarts its timer, without stacking the time left
+        if (powerUp.type == EntityType.SALT) {
+            FIRE_COOLDOWN = BOOSTED_FIRE_COOLDOWN;
+            fireRateBoostTimer = startOrRestart(fireRateBoostTimer, FIRE_RATE_BOOST_TIMER);
+        } else {
+            enablePepperShot();
+            pepperShotTimer = startOrRestart(pepperShotTimer, PEPPER_SHOT_TIMER);
+        }
+
+        listener.onPowerUpCollected(powerUp.type);
+    }
+
+    // Adds clone positions used for projectile firing
+    private void enablePepperShot() {
+        fireOffsets.clear();
+        fireOffsets.add(-80.0);
+        fireOffsets.add(80.0);
+        updateOutermostOffsets();
+    }
+
+    private void disablePepperShot() {
+        boolean wasActive = isPepperShotActive();
+        fireOffsets.clear();
+        updateOutermostOffsets();
+        timers.cancel(pepperShotTimer);
+        pepperShotTimer = TimerWheel.NONE;
+
+        if (wasActive) {
+            listener.onPepperShotEnded();
+        }
+    }
+
+    private void spawnExplosion(double centerX, double centerY) {
+        Entity explosion = spawn(EntityType.EXPLOSION, explosions);
+        explosion.x = centerX - explosion.width / 2;
+        explosion.y = centerY - explosion.height / 2;
+        timers.schedule(EXPLOSION_TICKS, EXPLOSION_TIMER, explosion.handle);
+    }
+
+    // Places an entity directly into the world, e.g. to set up a benchmark or restore a saved game
+    public Entity spawnEntity(EntityType type, double x, double y) {
+        Entity entity = spawn(type, getRegistry(type));
+        entity.x = x;
+        entity.y = y;
+        return entity;
+    }
+
+    // Removes one entity straight away rather than at the end of a tick, e.g. from a viewer's copy of the world (see SnapshotClient)
+    public void removeEntity(Entity entity) {
+        EntityRegistry registry = getRegistry(entity.type);
+
+        if (registry.contains(entity)) {
+            registry.unregister(entity);
+            entity.alive = false;
+            entityPool.release(entity);
+        }
+    }
+
+    // Shows or hides the pepper clones without a timer, for a viewer's copy of the world
+    public void setPepperShotActive(boolean active) {
+        if (active && !isPepperShotActive()) {
+            enablePepperShot();
+        } else if (!active && isPepperShotActive()) {
+            disablePepperShot();
+        }
+    }
+
+    // The registry holding every entity of the given type, salt and pepper share one
+    public EntityRegistry getRegistry(EntityType type) {
+        return switch (type) {
+            case ENEMY -> enemies;
+            case PLAYER_PROJECTILE -> playerProjectiles;
+            case ENEMY_PROJECTILE -> enemyProjectiles;
+            case SALT, PEPPER -> powerUps;
+            case EXPLOSION -> explosions;
+            case PLAYER -> throw new IllegalArgumentException("The world only has one player");
+        };
+    }
+
+    // True while the entity the handle was given to is still in the world, see EntityRegistry
+    public boolean isLive(EntityType type, long handle) {
+        return getRegistry(type).isLive(handle);
+    }
+
+    private Entity spawn(EntityType type, EntityRegistry registry) {
+        Entity entity = entityPool.acquire();
+        entity.type = type;
+        entity.id = nextEntityId++;
+        entity.alive = true;
+        entity.width = type.width;
+        entity.height = type.height;
+        registry.register(entity);
+        return entity;
+    }
+
+    /*
+    Entities killed during a tick are only marked dead, so the loops over them aren't disturbed, and are removed here
+    Walking backwards means the entity swapped into a freed place has already been checked
+     */
+    private void removeDead(EntityRegistry registry) {
+        for (int i = registry.size() - 1; i >= 0; i--) {
+            if (!registry.get(i).alive) {
+                entityPool.release(registry.removeAt(i));
+            }
+        }
+    }
+
+    private void clearEntities(EntityRegistry registry) {
+        while (!registry.isEmpty()) {
+            Entity entity = registry.removeAt(registry.size() - 1);
+            entity.alive = false;
+            entityPool.release(entity);
+        }
+    }
+
+    public CollisionEvents getCollisionEvents() {
+        return collisionEvents;
+    }
+
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
+    public GameState getState() {
+        return state;
+    }
+
+    public Entity getPlayer() {
+        return player;
+    }
+
+    public List<Entity> getEnemies() {
+        return enemies;
+    }
+
+    public List<Entity> getEnemyProjectiles() {
+        return enemyProjectiles;
+    }
+
+    public List<Entity> getPlayerProjectiles() {
+        return playerProjectiles;
+    }
+
+    public List<Entity> getPowerUps() {
+        return powerUps;
+    }
+
+    public List<Entity> getExplosions() {
+        return explosions;
+    }
+
+    public int getEntityCount() {
+        return enemies.size() + enemyProjectiles.size() + playerProjectiles.size() + powerUps.size() + explosions.size();
+    }
+
+    public boolean isPepperShotActive() {
+        return !fireOffsets.isEmpty();
+    }
+
+    public Set<Double> getFireOffsets() {
+        return Collections.unmodifiableSet(fireOffsets);
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    // Ticks since the current game started
+    public long getGameTicks() {
+        return tick - gameStartTick;
+    }
+
+    // World time in nanoseconds, always a whole number of ticks
+    public long getTime() {
+        return now;
+    }
+
+    public GameClock getClock() {
+        return clock;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /*
+    The 2 methods below write and read the whole simulation state (see SaveState for the file around it)
+    Registries and the timer wheel are saved exactly as they are, so a loaded world carries on tick for tick like the saved one
+    The listener, recording, and profiler are left as they are
+     */
+    void writeState(ByteBuffer out) {
+        out.putLong(seed);
+        out.putLong(random.getState());
+        out.putLong(tick);
+        out.putLong(gameStartTick);
+        out.putLong(clock.nanoTime());
+        out.putLong(now);
+        out.putInt(input);
+        out.put((byte) (gameOver ? 1 : 0));
+        out.putLong(nextEntityId);
+
+        out.putInt(state.life);
+        out.putInt(state.score);
+        out.putInt(state.highScore);
+        out.putLong(state.timeSinceLastTookDamage);
+
+        out.putLong(FIRE_COOLDOWN);
+        out.putLong(SPAWN_COOLDOWN);
+        out.putLong(timeSinceLastFired);
+        out.putLong(timeSinceLastSpawned);
+        out.putLong(timeSincePowerUpLastSpawned);
+        out.putLong(lastSpawnDifficultyIncrease);
+        out.putInt(stressTarget);
+        out.putInt(stressSpawnsPerTick);
+        out.putLong(enemyFireCooldown);
+
+        out.putLong(fireRateBoostTimer);
+        out.putLong(pepperShotTimer);
+        out.putLong(invulnerabilityTimer);
+        out.putInt(fireOffsets.size());
+        for (double offset : fireOffsets) {
+            out.putDouble(offset);
+        }
+
+        out.putDouble(player.x);
+        out.putDouble(player.y);
+        out.put((byte) (player.alive ? 1 : 0));
+
+        enemies.write(out);
+        enemyProjectiles.write(out);
+        playerProjectiles.write(out);
+        powerUps.write(out);
+        explosions.write(out);
+        timers.write(out);
+    }
+
+    void readState(ByteBuffer in) {
+        seed = in.getLong();
+        random.setState(in.getLong());
+        tick = in.getLong();
+        gameStartTick = in.getLong();
+        clock.restore(in.getLong());
+        now = in.getLong();
+        input = in.getInt();
+        gameOver = in.get() != 0;
+        nextEntityId = in.getLong();
+
+        state.life = in.getInt();
+        state.score = in.getInt();
+        state.highScore = in.getInt();
+        state.timeSinceLastTookDamage = in.getLong();
+
+        FIRE_COOLDOWN = in.getLong();
+        SPAWN_COOLDOWN = in.getLong();
+        timeSinceLastFired = in.getLong();
+        timeSinceLastSpawned = in.getLong();
+        timeSincePowerUpLastSpawned = in.getLong();
+        lastSpawnDifficultyIncrease = in.getLong();
+        stressTarget = in.getInt();
+        stressSpawnsPerTick = in.getInt();
+        enemyFireCooldown = in.getLong();
+
+        fireRateBoostTimer = in.getLong();
+        pepperShotTimer = in.getLong();
+        invulnerabilityTimer = in.getLong();
+        fireOffsets.clear();
+        int offsets = in.getInt();
+        for (int i = 0; i < offsets; i++) {
+            fireOffsets.add(in.getDouble());
+        }
+        updateOutermostOffsets();
+
+        player.x = in.getDouble();
+        player.y = in.getDouble();
+        player.alive = in.get() != 0;
+
+        readEntities(enemies, in);
+        readEntities(enemyProjectiles, in);
+        readEntities(playerProjectiles, in);
+        readEntities(powerUps, in);
+        readEntities(explosions, in);
+        timers.read(in);
+    }
+
+    private void readEntities(EntityRegistry registry, ByteBuffer in) {
+        clearEntities(registry);
+        registry.read(in, entityPool::acquire);
+    }
+
+    // Most bytes writeState() can need for the world as it is now
+    int getMaxStateSize() {
+        int registries = enemies.getSavedSize() + enemyProjectiles.getSavedSize() + playerProjectiles.getSavedSize()
+                + powerUps.getSavedSize() + explosions.getSavedSize();
+        return 256 + 8 * fireOffsets.size() + registries + timers.getSavedSize();
+    }
+
+    // Hash of the whole simulation state, two worlds with the same checksum are (almost certainly) in the same state
+    public long getChecksum() {
+        long hash = tick;
+        hash = hash * 31 + state.life;
+        hash = hash * 31 + state.score;
+        hash = hash * 31 + state.highScore;
+        hash = hash * 31 + random.getState();
+        hash = hash * 31 + Double.doubleToLongBits(player.x);
+        hash = hash * 31 + Double.doubleToLongBits(player.y);
+        hash = checksum(hash, enemies);
+        hash = checksum(hash, enemyProjectiles);
+        hash = checksum(hash, playerProjectiles);
+        hash = checksum(hash, powerUps);
+        hash = checksum(hash, explosions);
+        return hash;
+    }
+
+    private static long checksum(long hash, List<Entity> entities) {
+        hash = hash * 31 + entities.size();
+
+        for (Entity entity : entities) {
+            hash = hash * 31 + entity.type.ordinal();
+            hash = hash * 31 + Double.doubleToLongBits(entity.x);
+            hash = hash * 31 + Double.doubleToLongBits(entity.y);
+        }
+
+        return hash;
+    }
+}
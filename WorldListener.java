@@ -0,0 +1,17 @@
+// Notified by the world when something happens which the player should see or hear (sounds, flashes, game over screen)
+public interface WorldListener {
+
+    default void onPlayerFired() {}
+
+    default void onEnemyFired() {}
+
+    default void onEnemyDestroyed(Entity enemy) {}
+
+    default void onPlayerHit() {}
+
+    default void onPowerUpCollected(EntityType type) {}
+
+    default void onPepperShotEnded() {}
+
+    default void onGameOver() {}
+}
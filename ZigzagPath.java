@@ -0,0 +1,148 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/*
+Zigzag path followed by enemies and power ups
+There are only a handful of distinct paths (2 starting columns, 2 directions, and a sprite size and duration per type),
+so each one is worked out once into per-tick position tables and shared by every entity following it
+Moving along a path, or asking where an entity will be on a later tick, is then a table lookup
+ */
+public class ZigzagPath {
+
+    // Copied on write, so looking a path up never takes a lock even with several worlds running in parallel
+    private static volatile ZigzagPath[] paths = new ZigzagPath[0];
+
+    private final double startingX;
+    private final boolean startRight;
+    private final double spriteWidth;
+    private final int durationTicks;    // How many game ticks it takes to traverse the full path
+
+    // Center point of the sprite on each tick, from 0 to durationTicks
+    private final double[] xTable;
+    private final double[] yTable;
+
+    // Returns the shared path with these settings, building its tables the first time it's asked for
+    public static ZigzagPath of(double startingX, boolean startRight, double spriteWidth, double durationSeconds) {
+        int durationTicks = (int) Math.round(durationSeconds * World.TICKS_PER_SECOND);
+        ZigzagPath path = find(paths, startingX, startRight, spriteWidth, durationTicks);
+        return path != null ? path : add(startingX, startRight, spriteWidth, durationTicks);
+    }
+
+    // The 2 methods below save and load which path an entity is on (see SaveState), paths themselves are rebuilt from their settings
+    public void write(ByteBuffer out) {
+        out.putDouble(startingX);
+        out.put((byte) (startRight ? 1 : 0));
+        out.putDouble(spriteWidth);
+        out.putInt(durationTicks);
+    }
+
+    public static ZigzagPath read(ByteBuffer in) {
+        double startingX = in.getDouble();
+        boolean startRight = in.get() != 0;
+        double spriteWidth = in.getDouble();
+        int durationTicks = in.getInt();
+        ZigzagPath path = find(paths, startingX, startRight, spriteWidth, durationTicks);
+        return path != null ? path : add(startingX, startRight, spriteWidth, durationTicks);
+    }
+
+    private static synchronized ZigzagPath add(double startingX, boolean startRight, double spriteWidth, int durationTicks) {
+        ZigzagPath path = find(paths, startingX, startRight, spriteWidth, durationTicks);
+
+        if (path == null) {
+            path = new ZigzagPath(startingX, startRight, spriteWidth, durationTicks);
+            ZigzagPath[] grown = Arrays.copyOf(paths, paths.length + 1);
+            grown[grown.length - 1] = path;
+            paths = grown;
+        }
+
+        return path;
+    }
+
+    private static ZigzagPath find(ZigzagPath[] candidates, double startingX, boolean startRight, double spriteWidth, int durationTicks) {
+        for (ZigzagPath path : candidates) {
+            if (path.startingX == startingX && path.startRight == startRight && path.spriteWidth == spriteWidth
+                    && path.durationTicks == durationTicks) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    private ZigzagPath(double startingX, boolean startRight, double spriteWidth, int durationTicks) {
+        this.startingX = startingX;
+        this.startRight = startRight;
+        this.spriteWidth = spriteWidth;
+        this.durationTicks = durationTicks;
+
+        // Screen boundaries for movement
+        double minX = 0;
+        double maxX = 768 - spriteWidth;
+        double amplitude = startRight ? 250 : -250;
+
+        double[] xPoints = new double[] {
+                clamp(startingX, minX, maxX),
+                clamp(startingX + amplitude, minX, maxX),
+                clamp(startingX, minX, maxX),
+                clamp(startingX - amplitude, minX, maxX),
+                clamp(startingX, minX, maxX),
+                clamp(startingX + amplitude, minX, maxX),
+                clamp(startingX, minX, maxX),
+                clamp(startingX - amplitude, minX, maxX),
+                clamp(startingX, minX, maxX)
+        };
+        double[] yPoints = new double[] {-100, 128, 256, 384, 512, 640, 768, 896, 1024};
+
+        // Distance travelled along the path at each point
+        double[] distances = new double[xPoints.length];
+        for (int i = 1; i < xPoints.length; i++) {
+            distances[i] = distances[i - 1] + Math.hypot(xPoints[i] - xPoints[i - 1], yPoints[i] - yPoints[i - 1]);
+        }
+
+        xTable = new double[durationTicks + 1];
+        yTable = new double[durationTicks + 1];
+
+        int segment = 0;
+        for (int tick = 0; tick <= durationTicks; tick++) {
+
+            // Sprites move at a constant speed along the path, easing in and out at both ends like the PathTransition did
+            double distance = distances[distances.length - 1] * easeBoth(tick / (double) durationTicks);
+            while (segment < distances.length - 2 && distances[segment + 1] < distance) {
+                segment++;
+            }
+
+            double length = distances[segment + 1] - distances[segment];
+            double progress = length == 0 ? 0 : (distance - distances[segment]) / length;
+            xTable[tick] = xPoints[segment] + (xPoints[segment + 1] - xPoints[segment]) * progress;
+            yTable[tick] = yPoints[segment] + (yPoints[segment + 1] - yPoints[segment]) * progress;
+        }
+    }
+
+    public int getDurationTicks() {
+        return durationTicks;
+    }
+
+    // The 2 methods below return the sprite's center point after the given number of ticks, held at the ends outside the path
+    public double getX(long tick) {
+        return xTable[clampTick(tick)];
+    }
+
+    public double getY(long tick) {
+        return yTable[clampTick(tick)];
+    }
+
+    private int clampTick(long tick) {
+        return (int) Math.max(0, Math.min(durationTicks, tick));
+    }
+
+    // Same curve as JavaFX's Interpolator.EASE_BOTH
+    private static double easeBoth(double t) {
+        if (t < 0.2) return 3.125 * t * t;
+        if (t > 0.8) return -3.125 * t * t + 6.25 * t - 2.125;
+        return 1.25 * t - 0.125;
+    }
+
+    // Helper method to clamp x positions
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
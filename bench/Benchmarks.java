@@ -0,0 +1,203 @@
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/*
+Microbenchmarks for the collision and spawn hot paths
+Each benchmark is warmed up, then run for several timed iterations, reporting throughput and how much it allocates
+(bytes per operation and MB/s, the same numbers as JMH's -prof gc gc.alloc.rate.norm and gc.alloc.rate)
+
+JMH can't be used directly because it refuses benchmark classes in the default package, and the game's classes
+live in the default package, which named packages can't import
+
+Usage: mvn -Pbench compile exec:exec [-Dbench.filter=name]
+Iteration count and length can be changed with -Dbench.warmup=3 -Dbench.iterations=5 -Dbench.time=1000 (ms)
+ */
+public class Benchmarks {
+
+    private static final int WARMUP_ITERATIONS = Integer.getInteger("bench.warmup", 3);
+    private static final int ITERATIONS = Integer.getInteger("bench.iterations", 5);
+    private static final long ITERATION_NANOS = Long.getLong("bench.time", 1000) * 1_000_000L;
+
+    private static final int[] ENEMY_COUNTS = {10, 100, 1000};
+    private static final int[] PROJECTILE_COUNTS = {10, 100, 1000};
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static long sink;   // Results are folded into this so the JIT can't remove the benchmarked code
+
+    public static void main(String[] args) {
+        String filter = args.length > 0 ? args[0] : "";
+
+        System.out.printf("%-45s %15s %12s %12s %12s%n", "benchmark", "ops/s", "ns/op", "B/op", "MB/s");
+
+        // Pairs at varying distances so the JIT can't fold the checks into a constant
+        Random pairRandom = new Random(7);
+        Entity[] pairProjectiles = new Entity[1024];
+        Entity[] pairEnemies = new Entity[1024];
+        for (int i = 0; i < pairProjectiles.length; i++) {
+            pairProjectiles[i] = entity(EntityType.PLAYER_PROJECTILE, 100 + pairRandom.nextDouble() * 150, 100 + pairRandom.nextDouble() * 150);
+            pairEnemies[i] = entity(EntityType.ENEMY, 100 + pairRandom.nextDouble() * 150, 100 + pairRandom.nextDouble() * 150);
+        }
+        int[] pair = {0};
+        run(filter, "intersects", () -> {
+            int i = pair[0]++ & 1023;
+            return CollisionUtils.intersects(pairProjectiles[i], pairEnemies[i]) ? 1 : 0;
+        });
+        run(filter, "intersects padding=10", () -> {
+            int i = pair[0]++ & 1023;
+            return CollisionUtils.intersects(pairProjectiles[i], pairEnemies[i], 10) ? 1 : 0;
+        });
+        run(filter, "overlaps (rectangle, then collision mask)", () -> {
+            int i = pair[0]++ & 1023;
+            return CollisionUtils.overlaps(pairProjectiles[i], pairEnemies[i]) ? 1 : 0;
+        });
+
+        for (int enemies : ENEMY_COUNTS) {
+            for (int projectiles : PROJECTILE_COUNTS) {
+                World world = populatedWorld(enemies, projectiles);
+                run(filter, "collision update enemies=" + enemies + " projectiles=" + projectiles, () -> {
+                    CollisionManager.update(world);
+                    return world.getState().score;
+                });
+
+                CollisionEvents events = new CollisionEvents(64);
+                run(filter, "collision detect enemies=" + enemies + " projectiles=" + projectiles, () -> {
+                    CollisionManager.detect(world, events);
+                    int found = events.size();
+                    events.clear();
+                    return found;
+                });
+
+                if (world.getState().score != 0) {
+                    throw new IllegalStateException("Benchmark world should not have any hits");
+                }
+            }
+        }
+
+        Random random = new Random(42);
+        run(filter, "enemy spawn path", () -> {
+            double startingX = random.nextBoolean() ? 256 : 512;
+            ZigzagPath path = ZigzagPath.of(startingX, random.nextBoolean(), EntityType.ENEMY.width, 15);
+            return (long) path.getX(0);
+        });
+
+        ZigzagPath path = ZigzagPath.of(256, true, EntityType.ENEMY.width, 15);
+        int[] tick = {0};
+        run(filter, "enemy path position", () -> {
+            tick[0] = (tick[0] + 1) % path.getDurationTicks();
+            return (long) (path.getX(tick[0]) + path.getY(tick[0]));
+        });
+
+        World pepperWorld = new World(new GameState());
+        pepperWorld.setPepperShotActive(true);
+        run(filter, "fire offsets min/max", () -> (long) (pepperWorld.getLeftmostOffset() + pepperWorld.getRightmostOffset()));
+
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+    /*
+    World with enemies and player projectiles spread over the screen, nothing moves since only collisions are checked
+    Projectiles are placed where they don't touch an enemy so every iteration does the same work (a hit would destroy
+    the enemy), ones which can't find a free spot wait just above the screen where they still share grid cells with enemies
+     */
+    private static World populatedWorld(int enemies, int projectiles) {
+        World world = new World(new GameState());
+        Random random = new Random(enemies * 31L + projectiles);
+
+        for (int i = 0; i < enemies; i++) {
+            world.spawnEntity(EntityType.ENEMY, random.nextDouble() * (World.WIDTH - 75), random.nextDouble() * (World.HEIGHT - 75));
+        }
+
+        for (int i = 0; i < projectiles; i++) {
+            Entity projectile = world.spawnEntity(EntityType.PLAYER_PROJECTILE, 0, -60);
+
+            for (int attempt = 0; attempt < 100; attempt++) {
+                projectile.x = random.nextDouble() * (World.WIDTH - 50);
+                projectile.y = random.nextDouble() * (World.HEIGHT - 50);
+
+                if (!touchesEnemy(world, projectile)) {
+                    break;
+                }
+                projectile.y = -60;
+            }
+        }
+
+        // Keeps the player out of the way
+        world.getPlayer().x = -1000;
+        return world;
+    }
+
+    private static boolean touchesEnemy(World world, Entity projectile) {
+        for (Entity enemy : world.getEnemies()) {
+            if (CollisionUtils.intersects(projectile, enemy)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Entity entity(EntityType type, double x, double y) {
+        Entity entity = new Entity();
+        entity.reset();
+        entity.type = type;
+        entity.alive = true;
+        entity.x = x;
+        entity.y = y;
+        entity.width = type.width;
+        entity.height = type.height;
+        return entity;
+    }
+
+    private static void run(String filter, String name, LongSupplier operation) {
+        if (!name.contains(filter)) {
+            return;
+        }
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            iteration(operation);
+        }
+
+        double totalOps = 0;
+        double totalNanos = 0;
+        double totalBytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            double[] result = iteration(operation);
+            totalOps += result[0];
+            totalNanos += result[1];
+            totalBytes += result[2];
+        }
+
+        double opsPerSecond = totalOps / (totalNanos / 1e9);
+        double nanosPerOp = totalNanos / totalOps;
+        double bytesPerOp = totalBytes / totalOps;
+        double megabytesPerSecond = totalBytes / (1024.0 * 1024.0) / (totalNanos / 1e9);
+
+        System.out.printf("%-45s %15.0f %12.1f %12.1f %12.1f%n", name, opsPerSecond, nanosPerOp, bytesPerOp, megabytesPerSecond);
+    }
+
+    // Runs the operation for one iteration length, returns {operations, nanoseconds, bytes allocated}
+    private static double[] iteration(LongSupplier operation) {
+        long ops = 0;
+        long result = 0;
+        long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long elapsed;
+
+        do {
+            for (int i = 0; i < 1024; i++) {
+                result += operation.getAsLong();
+            }
+            ops += 1024;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < ITERATION_NANOS);
+
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        sink += result;
+
+        return new double[] {ops, elapsed, allocated};
+    }
+}
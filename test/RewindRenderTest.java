@@ -0,0 +1,56 @@
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Restoring a kept tick hands the same pooled entities back to the renderer, which has to redraw them without leaving old sprites behind
+public class RewindRenderTest {
+
+    @Test
+    public void restoringThenRenderingLeavesOneViewPerEntity() {
+        World world = new World(new GameState(), 42);
+        world.setStressTarget(200);
+        Pane gamePane = new Pane();
+        NodeRenderer renderer = new NodeRenderer(gamePane);
+        RewindBuffer rewind = new RewindBuffer(4 * 1024 * 1024);
+
+        for (int i = 0; i < 300; i++) {
+            world.tick();
+            rewind.record(world);
+            renderer.render(world);
+        }
+        assertTrue(world.getEntityCount() > 0);
+
+        long newest = world.getTick();
+        for (long tick = newest - 1; tick > newest - 60; tick -= 7) {
+            assertTrue(rewind.restore(world, tick));
+            renderer.render(world);
+            assertEquals(countLiveEntities(world), countViews(gamePane));
+        }
+    }
+
+    private static int countLiveEntities(World world) {
+        int count = 0;
+        for (EntityType type : new EntityType[] {EntityType.ENEMY, EntityType.ENEMY_PROJECTILE, EntityType.PLAYER_PROJECTILE, EntityType.SALT, EntityType.EXPLOSION}) {
+            for (Entity entity : world.getRegistry(type)) {
+                if (entity.alive) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int countViews(Pane gamePane) {
+        int count = 0;
+        for (Node node : gamePane.getChildren()) {
+            if (node instanceof EntityView view) {
+                assertTrue(view.isBound());
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,62 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SaveStateTest {
+
+    @Test
+    public void loadedWorldCarriesOnLikeTheSavedOne() throws IOException {
+        World saved = playedWorld();
+        ByteBuffer buffer = save(saved);
+
+        World loaded = new World(new GameState(), 7);
+        SaveState.read(loaded, buffer);
+        assertEquals(saved.getChecksum(), loaded.getChecksum());
+
+        for (int i = 0; i < 600; i++) {
+            saved.tick();
+            loaded.tick();
+        }
+        assertEquals(saved.getChecksum(), loaded.getChecksum());
+    }
+
+    @Test
+    public void damagedSaveLeavesTheWorldAsItWas() {
+        ByteBuffer buffer = save(playedWorld());
+        buffer.put(buffer.limit() / 2, (byte) (buffer.get(buffer.limit() / 2) ^ 0x40));
+
+        World world = playedWorld();
+        long before = world.getChecksum();
+        assertThrows(IOException.class, () -> SaveState.read(world, buffer));
+        assertEquals(before, world.getChecksum());
+    }
+
+    @Test
+    public void loadingAnOldSaveKeepsTheHighScore() throws IOException {
+        ByteBuffer buffer = save(playedWorld());
+
+        World world = new World(new GameState(), 7);
+        world.getState().highScore = 1_000_000;
+        SaveState.read(world, buffer);
+        assertEquals(1_000_000, world.getState().highScore);
+    }
+
+    private static World playedWorld() {
+        World world = new World(new GameState(), 42);
+        world.setStressTarget(100);
+        for (int i = 0; i < 300; i++) {
+            world.tick();
+        }
+        return world;
+    }
+
+    private static ByteBuffer save(World world) {
+        ByteBuffer buffer = ByteBuffer.allocate(SaveState.getMaxSize(world));
+        SaveState.write(world, buffer);
+        return buffer.flip();
+    }
+}
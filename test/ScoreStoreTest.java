@@ -0,0 +1,66 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ScoreStoreTest {
+
+    private static final int HEADER_BYTES = 5;
+    private static final int RECORD_BYTES = 32;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void damagedRecordIsSkippedAndTheRestKept() throws IOException {
+        Path path = writeScores(100, 300, 200);
+        flipByte(path, HEADER_BYTES + RECORD_BYTES + 2);     // Inside the second record's score
+
+        try (ScoreStore store = new ScoreStore(path, 10)) {
+            assertEquals(2, store.getGamesRecorded());
+            assertEquals(200, store.getHighScore());
+        }
+        assertEquals(HEADER_BYTES + 3 * RECORD_BYTES, Files.size(path));
+    }
+
+    @Test
+    public void tornLastRecordIsTrimmed() throws IOException {
+        Path path = writeScores(100, 300);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[RECORD_BYTES / 2]));
+        }
+
+        try (ScoreStore store = new ScoreStore(path, 10)) {
+            assertEquals(2, store.getGamesRecorded());
+            store.record(new ScoreStore.Entry(500, 0, 60, 1));
+        }
+
+        try (ScoreStore store = new ScoreStore(path, 10)) {
+            assertEquals(3, store.getGamesRecorded());
+            assertEquals(500, store.getHighScore());
+        }
+    }
+
+    private Path writeScores(int... scores) throws IOException {
+        Path path = directory.resolve("scores.pzs");
+        try (ScoreStore store = new ScoreStore(path, 10)) {
+            for (int score : scores) {
+                store.record(new ScoreStore.Entry(score, 0, 60, 1));
+            }
+        }
+        return path;
+    }
+
+    private static void flipByte(Path path, int position) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[position] ^= 0x40;
+        Files.write(path, bytes);
+    }
+}